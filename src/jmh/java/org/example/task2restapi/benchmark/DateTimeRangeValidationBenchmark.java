@@ -0,0 +1,76 @@
+package org.example.task2restapi.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks bean validation of a recorded fact, which runs DateTimeRangeValidator for its range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DateTimeRangeValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private RecordExecutionFactDto validRange;
+
+    private RecordExecutionFactDto invalidRange;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        validRange = RecordExecutionFactDto.builder()
+                .withExecutorId(UUID.randomUUID())
+                .withDescription("description")
+                .withStartTime(start)
+                .withFinishTime(start.plusHours(1))
+                .build();
+        invalidRange = RecordExecutionFactDto.builder()
+                .withExecutorId(UUID.randomUUID())
+                .withDescription("description")
+                .withStartTime(start)
+                .withFinishTime(start.minusHours(1))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RecordExecutionFactDto>> validate_validRange() {
+        return validator.validate(validRange);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RecordExecutionFactDto>> validate_invalidRange() {
+        return validator.validate(invalidRange);
+    }
+
+}
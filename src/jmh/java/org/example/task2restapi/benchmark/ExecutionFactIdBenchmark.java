@@ -0,0 +1,122 @@
+package org.example.task2restapi.benchmark;
+
+import org.example.task2restapi.Task2RestApiApplication;
+import org.example.task2restapi.config.TestDbConfig;
+import org.example.task2restapi.entity.generator.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares insert throughput of execution facts keyed by random UUIDs (version 4, previous @GeneratedValue
+ * strategy) and by time-ordered UUIDv7 against embedded H2 whose primary key index is seeded with
+ * {@code factCount} keys of same kind. Every invocation inserts one JDBC batch of {@code batchSize} facts,
+ * e.g. {@code -Djmh.includes=ExecutionFactIdBenchmark -Djmh.args="-f 1 -prof gc -p factCount=1000000"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExecutionFactIdBenchmark {
+
+    private static final String INSERT = "insert into execution_facts " +
+                                         "(id, start_time, finish_time, executor_id, description, version) " +
+                                         "values (?, ?, ?, ?, ?, 0)";
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public enum KeyStrategy {
+        RANDOM(UUID::randomUUID),
+        UUID_V7(UuidV7Generator::generate);
+
+        private final Supplier<UUID> generator;
+
+        KeyStrategy(Supplier<UUID> generator) {
+            this.generator = generator;
+        }
+    }
+
+    @Param({"RANDOM", "UUID_V7"})
+    private KeyStrategy keyStrategy;
+
+    @Param({"100000"})
+    private int factCount;
+
+    @Param({"500"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID executorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Task2RestApiApplication.class, TestDbConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.liquibase.contexts=none",
+                        "configuration.scheduling.enabled=false",
+                        "logging.level.root=warn"
+                )
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        executorId = UuidV7Generator.generate();
+        jdbcTemplate.update("insert into participants (id, full_name, email, version) values (?, ?, ?, 0)",
+                executorId, "Executor", "executor@example.org");
+        for (int seeded = 0; seeded < factCount; seeded += batchSize) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int[] insertBatch() {
+        List<Object[]> facts = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            facts.add(new Object[]{
+                    keyStrategy.generator.get(),
+                    Timestamp.valueOf(START),
+                    Timestamp.valueOf(START.plusMinutes(30)),
+                    executorId,
+                    "inserted fact"
+            });
+        }
+        return jdbcTemplate.batchUpdate(INSERT, facts);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public UUID generateId() {
+        return keyStrategy.generator.get();
+    }
+
+}
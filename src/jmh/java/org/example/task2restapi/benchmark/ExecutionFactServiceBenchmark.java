@@ -0,0 +1,183 @@
+package org.example.task2restapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.task2restapi.Task2RestApiApplication;
+import org.example.task2restapi.config.TestDbConfig;
+import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.service.ExecutionFactService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ExecutionFactService hot paths against embedded H2 seeded with {@code factCount} facts
+ * spread over {@code executorCount} executors. Volumes can be changed with jmh -p option,
+ * e.g. {@code -Djmh.args="-f 1 -prof gc -p factCount=100000"}.
+ * Write benchmarks leave inserted facts in the database, each benchmark runs in its own fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExecutionFactServiceBenchmark {
+
+    private static final LocalDateTime SEED_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"10000"})
+    private int factCount;
+
+    @Param({"100"})
+    private int executorCount;
+
+    @Param({"500"})
+    private int uploadSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutionFactService factService;
+
+    private List<UUID> executorIds;
+
+    private byte[] uploadContent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(Task2RestApiApplication.class, TestDbConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.liquibase.contexts=none",
+                        "configuration.scheduling.enabled=false",
+                        "logging.level.root=warn"
+                )
+                .run();
+        factService = context.getBean(ExecutionFactService.class);
+        seed(context.getBean(JdbcTemplate.class));
+        uploadContent = context.getBean(ObjectMapper.class).writeValueAsBytes(generateRecords(uploadSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GetFilteredExecutionFactsDto findAll_firstPage() {
+        return factService.findAll(new ExecutionFactFilterOptionsDto(null, null, null, null, 0, 50));
+    }
+
+    @Benchmark
+    public GetFilteredExecutionFactsDto findAll_lastPageByExecutor() {
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto(
+                "executor0@example.org", null, null, null, factCount / executorCount / 50, 50
+        );
+        return factService.findAll(filter);
+    }
+
+    @Benchmark
+    public GetFilteredExecutionFactsDto findAll_keysetPage() {
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto(null, null, null, null, null, 50);
+        filter.setPaginationMode(PaginationMode.KEYSET);
+        return factService.findAll(filter);
+    }
+
+    @Benchmark
+    public void generateCsvReport_allFacts() {
+        factService.generateCsvReport(
+                new ExecutionFactFilterOptionsDto(null, null, null, null, null, null),
+                OutputStream::nullOutputStream
+        );
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ExecutionFactUploadResultDto uploadFromFile() {
+        return factService.uploadFromFile(
+                new MockMultipartFile("file", "facts.json", "application/json", uploadContent)
+        );
+    }
+
+    @Benchmark
+    public void recordExecutionFact(Blackhole blackhole) {
+        blackhole.consume(factService.recordExecutionFact(randomRecord(ThreadLocalRandom.current())));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        executorIds = new ArrayList<>(executorCount);
+        List<Object[]> executors = new ArrayList<>(executorCount);
+        for (int i = 0; i < executorCount; i++) {
+            UUID id = UUID.randomUUID();
+            executorIds.add(id);
+            executors.add(new Object[]{id, "Executor " + i, "executor%d@example.org".formatted(i)});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into participants (id, full_name, email, version) values (?, ?, ?, 0)", executors
+        );
+
+        List<Object[]> facts = new ArrayList<>(factCount);
+        for (int i = 0; i < factCount; i++) {
+            LocalDateTime start = SEED_START.plusMinutes(i);
+            facts.add(new Object[]{
+                    UUID.randomUUID(),
+                    Timestamp.valueOf(start),
+                    i % 10 == 0 ? null : Timestamp.valueOf(start.plusMinutes(30)),
+                    executorIds.get(i % executorCount),
+                    "fact " + i
+            });
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into execution_facts (id, start_time, finish_time, executor_id, description, version) " +
+                        "values (?, ?, ?, ?, ?, 0)",
+                facts
+        );
+    }
+
+    private List<RecordExecutionFactDto> generateRecords(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<RecordExecutionFactDto> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(randomRecord(random));
+        }
+        return records;
+    }
+
+    private RecordExecutionFactDto randomRecord(ThreadLocalRandom random) {
+        LocalDateTime start = SEED_START.plusMinutes(random.nextInt(factCount));
+        return RecordExecutionFactDto.builder()
+                .withExecutorId(executorIds.get(random.nextInt(executorCount)))
+                .withDescription("recorded fact")
+                .withStartTime(start)
+                .withFinishTime(start.plusMinutes(30))
+                .build();
+    }
+
+}
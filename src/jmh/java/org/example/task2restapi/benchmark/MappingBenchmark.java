@@ -0,0 +1,117 @@
+package org.example.task2restapi.benchmark;
+
+import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
+import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.mapper.ExecutionFactMapper;
+import org.example.task2restapi.mapper.ParticipantMapper;
+import org.example.task2restapi.service.DateTimeService;
+import org.example.task2restapi.service.impl.DateTimeServiceImpl;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.spi.MappingContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hand-written mappers with the ModelMapper configuration they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MappingBenchmark {
+
+    private final DateTimeService dateTimeService = new DateTimeServiceImpl();
+
+    private ModelMapper modelMapper;
+
+    private ParticipantMapper participantMapper;
+
+    private ExecutionFactMapper executionFactMapper;
+
+    private Participant executor;
+
+    private ExecutionFact fact;
+
+    private RecordExecutionFactDto recordDto;
+
+    @Setup
+    public void setUp() {
+        executor = Participant.builder()
+                .withId(UUID.randomUUID())
+                .withFullName("John Doe")
+                .withEmail("john.doe@example.org")
+                .build();
+        fact = ExecutionFact.builder()
+                .withId(UUID.randomUUID())
+                .withStartTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .withFinishTime(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .withDescription("description")
+                .withExecutor(executor)
+                .build();
+        recordDto = RecordExecutionFactDto.builder()
+                .withExecutorId(executor.getId())
+                .withDescription("description")
+                .withFinishTime(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+
+        participantMapper = new ParticipantMapper();
+        executionFactMapper = new ExecutionFactMapper(participantMapper, dateTimeService);
+
+        // same type map the services used to configure, executor lookup is replaced by a constant
+        modelMapper = new ModelMapper();
+        modelMapper.emptyTypeMap(RecordExecutionFactDto.class, ExecutionFact.class).addMappings(mapping -> {
+            mapping.skip(ExecutionFact::setId);
+            mapping.using((MappingContext<UUID, Participant> ctx) -> executor)
+                    .map(RecordExecutionFactDto::getExecutorId, ExecutionFact::setExecutor);
+            mapping.using((MappingContext<LocalDateTime, LocalDateTime> ctx) ->
+                    ctx.getSource() == null ? dateTimeService.utcNow() : ctx.getSource()
+            ).map(RecordExecutionFactDto::getStartTime, ExecutionFact::setStartTime);
+        }).implicitMappings();
+    }
+
+    @Benchmark
+    public GetDetailedExecutionFactDto detailedDto_modelMapper() {
+        return modelMapper.map(fact, GetDetailedExecutionFactDto.class);
+    }
+
+    @Benchmark
+    public GetDetailedExecutionFactDto detailedDto_mapper() {
+        return executionFactMapper.toDetailedDto(fact);
+    }
+
+    @Benchmark
+    public GetParticipantDto participantDto_modelMapper() {
+        return modelMapper.map(executor, GetParticipantDto.class);
+    }
+
+    @Benchmark
+    public GetParticipantDto participantDto_mapper() {
+        return participantMapper.toGetDto(executor);
+    }
+
+    @Benchmark
+    public ExecutionFact recordEntity_modelMapper() {
+        return modelMapper.map(recordDto, ExecutionFact.class);
+    }
+
+    @Benchmark
+    public ExecutionFact recordEntity_mapper() {
+        return executionFactMapper.toEntity(recordDto, executor);
+    }
+
+}
@@ -1,20 +1,67 @@
 package org.example.task2restapi.config;
 
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.service.impl.ExecutionFactListCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Scope;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import java.time.Duration;
+
 @Configuration
+@EnableCaching
 @EnableTransactionManagement
 public class ApplicationConfig {
 
+    /**
+     * Runs upload jobs, pool and queue are bounded so imports can be throttled independently of api traffic.
+     */
+    @Bean(name = "executionFactUploadExecutor")
+    public ThreadPoolTaskExecutor executionFactUploadExecutor(
+            @Value("${configuration.endpoints.execution-fact.upload.jobs.pool-size}") Integer poolSize,
+            @Value("${configuration.endpoints.execution-fact.upload.jobs.queue-capacity}") Integer queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("execution-fact-upload-");
+        return executor;
+    }
+
+    /**
+     * Pages of execution facts list, bounded by total count of cached facts instead of count of pages,
+     * as page size varies up to max page size.
+     * It is native caffeine cache, as spring Cache bean would replace auto-configured cache manager.
+     */
+    @Bean(name = "executionFactsListCache")
+    public Cache<Object, Object> executionFactsListCache(
+            @Value("${configuration.endpoints.execution-fact._list.cache.max-weight}") Long maxWeight,
+            @Value("${configuration.endpoints.execution-fact._list.cache.expire-after-write}") Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Object key, Object page) -> page instanceof GetFilteredExecutionFactsDto dto ?
+                        dto.getExecutionFacts().size() + 1 : 1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Registers execution facts list cache in cache manager, so it is cleared and measured like other caches.
+     */
     @Bean
-    @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
+    public CacheManagerCustomizer<CaffeineCacheManager> executionFactsListCacheRegistrar(
+            @Qualifier("executionFactsListCache") Cache<Object, Object> executionFactsListCache) {
+        return cacheManager -> cacheManager.registerCustomCache(
+                ExecutionFactListCache.EXECUTION_FACTS_LIST, executionFactsListCache);
     }
 
 }
@@ -4,14 +4,153 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 @Configuration
 public class ConfigurableValuesConfig {
 
     @Value("${configuration.endpoints.execution-fact._list.max-page-size}")
     private Integer maxPageSize;
 
+    @Value("${configuration.endpoints.execution-fact._report.fetch-size}")
+    private Integer reportFetchSize;
+
+    @Value("${configuration.endpoints.execution-fact._bulk.chunk-size}")
+    private Integer bulkChunkSize;
+
+    @Value("${configuration.endpoints.execution-fact._stats.changes-batch-size}")
+    private Integer statsChangesBatchSize;
+
+    @Value("${configuration.endpoints.execution-fact.upload.batch-size}")
+    private Integer uploadBatchSize;
+
+    @Value("${configuration.endpoints.execution-fact.upload.max-reported-errors}")
+    private Integer uploadMaxReportedErrors;
+
+    @Value("${configuration.endpoints.execution-fact.upload.jobs.spool-directory}")
+    private Path uploadJobsSpoolDirectory;
+
+    @Value("${configuration.endpoints.execution-fact.upload.jobs.retention}")
+    private Duration uploadJobsRetention;
+
+    @Value("${configuration.retention.execution-fact.max-age}")
+    private Duration retentionMaxAge;
+
+    @Value("${configuration.retention.execution-fact.batch-size}")
+    private Integer retentionBatchSize;
+
+    @Value("${configuration.partitioning.execution-fact.months-ahead}")
+    private Integer partitionsMonthsAhead;
+
+    @Value("${configuration.datasource.replica.enabled}")
+    private Boolean replicaEnabled;
+
+    @Value("${configuration.outbox.relay.batch-size}")
+    private Integer outboxRelayBatchSize;
+
+    @Value("${configuration.outbox.relay.send-timeout}")
+    private Duration outboxRelaySendTimeout;
+
+    @Value("${configuration.outbox.relay.backoff-base}")
+    private Duration outboxRelayBackoffBase;
+
+    @Value("${configuration.outbox.relay.backoff-max}")
+    private Duration outboxRelayBackoffMax;
+
+    @Value("${configuration.outbox.retention.max-age}")
+    private Duration outboxRetentionMaxAge;
+
+    @Value("${configuration.outbox.retention.batch-size}")
+    private Integer outboxRetentionBatchSize;
+
     @Bean(name = "executionFactsMaxPageSize")
     public Integer getExecutionFactsMaxPageSize() {
         return maxPageSize;
     }
+
+    @Bean(name = "executionFactsReportFetchSize")
+    public Integer getExecutionFactsReportFetchSize() {
+        return reportFetchSize;
+    }
+
+    @Bean(name = "executionFactsBulkChunkSize")
+    public Integer getExecutionFactsBulkChunkSize() {
+        return bulkChunkSize;
+    }
+
+    @Bean(name = "executionFactsStatsChangesBatchSize")
+    public Integer getExecutionFactsStatsChangesBatchSize() {
+        return statsChangesBatchSize;
+    }
+
+    @Bean(name = "executionFactsUploadBatchSize")
+    public Integer getExecutionFactsUploadBatchSize() {
+        return uploadBatchSize;
+    }
+
+    @Bean(name = "executionFactsUploadMaxReportedErrors")
+    public Integer getExecutionFactsUploadMaxReportedErrors() {
+        return uploadMaxReportedErrors;
+    }
+
+    @Bean(name = "executionFactsUploadSpoolDirectory")
+    public Path getExecutionFactsUploadSpoolDirectory() {
+        return uploadJobsSpoolDirectory;
+    }
+
+    @Bean(name = "executionFactsUploadJobRetention")
+    public Duration getExecutionFactsUploadJobRetention() {
+        return uploadJobsRetention;
+    }
+
+    @Bean(name = "executionFactsRetentionMaxAge")
+    public Duration getExecutionFactsRetentionMaxAge() {
+        return retentionMaxAge;
+    }
+
+    @Bean(name = "executionFactsRetentionBatchSize")
+    public Integer getExecutionFactsRetentionBatchSize() {
+        return retentionBatchSize;
+    }
+
+    @Bean(name = "executionFactsPartitionsMonthsAhead")
+    public Integer getExecutionFactsPartitionsMonthsAhead() {
+        return partitionsMonthsAhead;
+    }
+
+    @Bean(name = "datasourceReplicaEnabled")
+    public Boolean getDatasourceReplicaEnabled() {
+        return replicaEnabled;
+    }
+
+    @Bean(name = "outboxRelayBatchSize")
+    public Integer getOutboxRelayBatchSize() {
+        return outboxRelayBatchSize;
+    }
+
+    @Bean(name = "outboxRelaySendTimeout")
+    public Duration getOutboxRelaySendTimeout() {
+        return outboxRelaySendTimeout;
+    }
+
+    @Bean(name = "outboxRelayBackoffBase")
+    public Duration getOutboxRelayBackoffBase() {
+        return outboxRelayBackoffBase;
+    }
+
+    @Bean(name = "outboxRelayBackoffMax")
+    public Duration getOutboxRelayBackoffMax() {
+        return outboxRelayBackoffMax;
+    }
+
+    @Bean(name = "outboxRetentionMaxAge")
+    public Duration getOutboxRetentionMaxAge() {
+        return outboxRetentionMaxAge;
+    }
+
+    @Bean(name = "outboxRetentionBatchSize")
+    public Integer getOutboxRetentionBatchSize() {
+        return outboxRetentionBatchSize;
+    }
 }
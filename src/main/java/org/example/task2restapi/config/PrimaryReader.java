@@ -0,0 +1,41 @@
+package org.example.task2restapi.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads whose results are shared by requests, e.g. put to cache, against primary database.
+ * Replica may lag behind primary, so value read from it after a write was committed and its cache entry
+ * was evicted would put state preceding the write back to cache.
+ * In read-only transaction with replica enabled read runs in new read-write transaction, which is routed
+ * to primary (see {@link DataSourceConfig}), otherwise it runs in current transaction.
+ */
+@Component
+public class PrimaryReader {
+
+    private final TransactionTemplate primaryTransaction;
+
+    private final Boolean replicaEnabled;
+
+    public PrimaryReader(PlatformTransactionManager transactionManager,
+                         @Qualifier("datasourceReplicaEnabled")
+                         Boolean replicaEnabled) {
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicaEnabled = replicaEnabled;
+    }
+
+    public <T> T read(Supplier<T> reader) {
+        if (!replicaEnabled || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return reader.get();
+        }
+        return primaryTransaction.execute(status -> reader.get());
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.example.task2restapi.config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Read-only transaction: Hibernate neither flushes nor keeps snapshots of loaded entities for dirty checking,
+ * and connection is taken from replica pool if it is configured (see {@link DataSourceConfig}).
+ * Overrides class level jakarta.transaction.Transactional of services, which has no read-only flag.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
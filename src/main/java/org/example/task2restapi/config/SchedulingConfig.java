@@ -0,0 +1,14 @@
+package org.example.task2restapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs can be turned off, e.g. in tests which trigger them directly.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "configuration.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
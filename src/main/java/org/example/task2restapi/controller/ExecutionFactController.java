@@ -6,18 +6,29 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.dto.BulkUpdateExecutionFactsDto;
+import org.example.task2restapi.dto.ExecutionFactBulkResultDto;
 import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.ExecutionFactUploadFailureDto;
+import org.example.task2restapi.dto.ExecutionFactUploadJobDto;
+import org.example.task2restapi.dto.ExecutionFactUploadProgressDto;
 import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
 import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
 import org.example.task2restapi.dto.GetExecutionFactDto;
+import org.example.task2restapi.dto.GetExecutionFactDurationPercentilesDto;
+import org.example.task2restapi.dto.GetExecutionFactStatsDto;
 import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.dto.PercentileBucket;
 import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.dto.StatsBucket;
 import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.dto.VersionedDto;
 import org.example.task2restapi.service.ExecutionFactService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.example.task2restapi.service.ExecutionFactUploadJobService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -28,12 +39,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -46,6 +63,8 @@ public class ExecutionFactController {
 
     private final ExecutionFactService factService;
 
+    private final ExecutionFactUploadJobService uploadJobService;
+
     @PostMapping
     @Operation(
             description = "Records given execution fact. If start time is not given then current time by UTC is assigned."
@@ -80,7 +99,9 @@ public class ExecutionFactController {
     }
 
     @GetMapping("/{id}")
-    @Operation(description = "Returns detailed version of execution fact by given id.")
+    @Operation(description = "Returns detailed version of execution fact by given id, archived facts included. " +
+                             "ETag changes whenever fact or its executor changes, so If-None-Match header " +
+                             "with ETag of held copy can be given to get 304 without body if it is still current.")
     @ApiResponse(
             responseCode = "200",
             description = "Retrieved",
@@ -89,6 +110,10 @@ public class ExecutionFactController {
                     schema = @Schema(implementation = GetDetailedExecutionFactDto.class)
             )
     )
+    @ApiResponse(
+            responseCode = "304",
+            description = "Execution fact was not modified since ETag given in If-None-Match"
+    )
     @ApiResponse(
             responseCode = "400",
             description = "Means that execution fact with given id was not found",
@@ -97,17 +122,25 @@ public class ExecutionFactController {
                     schema = @Schema(implementation = ExceptionResponse.class)
             )
     )
-    public GetDetailedExecutionFactDto getById(@PathVariable UUID id) {
+    public ResponseEntity<GetDetailedExecutionFactDto> getById(@PathVariable UUID id, WebRequest request) {
         log.debug("getting execution fact by id: {}", id);
-        GetDetailedExecutionFactDto byId = factService.getById(id);
+        VersionedDto<GetDetailedExecutionFactDto> byId = factService.getVersionedById(id);
+        if (request.checkNotModified(byId.getVersion())) {
+            log.debug("execution fact with id {} is not modified since version {}", id, byId.getVersion());
+            return null;
+        }
         log.debug("got execution fact: {}", byId);
-        return byId;
+        return ResponseEntity.ok()
+                .eTag(byId.getVersion())
+                .body(byId.getValue());
     }
 
     @PutMapping("/{id}")
     @Operation(
             description = "Updates execution fact with given id with data from UpdateExecutionFactDto." +
-                    " If UpdateExecutionFactDto has null fields then that specific field will be ignored"
+                    " If UpdateExecutionFactDto has null fields then that specific field will be ignored." +
+                    " If If-Match header is given then fact is updated only if it still has one of listed ETags," +
+                    " weak ETags never match as If-Match uses strong comparison, * matches any ETag."
     )
     @ApiResponse(
             responseCode = "200",
@@ -121,9 +154,26 @@ public class ExecutionFactController {
                     schema = @Schema(implementation = ExceptionResponse.class)
             )
     )
-    public void updateExecutionFact(@PathVariable UUID id, @RequestBody UpdateExecutionFactDto factDto) {
-        log.debug("updating execution fact with id {} with data {}", id, factDto);
-        factService.updateExecutionFact(id, factDto);
+    @ApiResponse(
+            responseCode = "409",
+            description = "Execution fact is archived, archived facts can not be changed",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "412",
+            description = "Execution fact or its executor was changed since every ETag given in If-Match",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
+    public void updateExecutionFact(@PathVariable UUID id, @RequestBody UpdateExecutionFactDto factDto,
+                                    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("updating execution fact with id {} if it matches {} with data {}", id, ifMatch, factDto);
+        factService.updateExecutionFact(id, factDto, ifMatch == null ? null : parseIfMatch(ifMatch));
         log.debug("updated  execution fact with id {}", id);
     }
 
@@ -135,16 +185,74 @@ public class ExecutionFactController {
             responseCode = "200",
             description = "Means that execution fact was deleted"
     )
+    @ApiResponse(
+            responseCode = "409",
+            description = "Execution fact is archived, archived facts can not be changed",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
     public void deleteExecutionFact(@PathVariable UUID id) {
         log.debug("deleting execution fact with id {}", id);
         factService.deleteById(id);
         log.debug("deleted execution fact with id {}", id);
     }
 
+    @PostMapping(path = "/_delete")
+    @Operation(description = "Deletes all execution facts based on given filter, pagination parameters are ignored. " +
+                             "At least one of executorEmail, description or finish time range must be given. " +
+                             "Facts are deleted by chunks in separate transactions.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Deleted, count of deleted facts returned",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExecutionFactBulkResultDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Given filter is invalid or empty, detailed message provided"
+    )
+    public ExecutionFactBulkResultDto deleteFiltered(@RequestBody ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        log.debug("deleting execution facts by {}", factFilterOptionsDto);
+        ExecutionFactBulkResultDto result = factService.deleteAll(factFilterOptionsDto);
+        log.debug("deleted execution facts {}", result);
+        return result;
+    }
+
+    @PostMapping(path = "/_update")
+    @Operation(description = "Sets given executor and/or description to all execution facts based on given filter, " +
+                             "null values are not changed. Filter rules are the same as for _delete. " +
+                             "Facts are updated by chunks in separate transactions.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Updated, count of updated facts returned",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExecutionFactBulkResultDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Given data is invalid, filter is empty or executor does not exist, detailed message provided"
+    )
+    public ExecutionFactBulkResultDto updateFiltered(@RequestBody BulkUpdateExecutionFactsDto bulkUpdateDto) {
+        log.debug("updating execution facts with {}", bulkUpdateDto);
+        ExecutionFactBulkResultDto result = factService.updateAll(bulkUpdateDto);
+        log.debug("updated execution facts {}", result);
+        return result;
+    }
+
     @PostMapping(path = "/_list")
     @Operation(description = "Returns execution facts based on given filter. Pagination is zero based. " +
                              "If fromFinishTime or toFinishTime is null then both of them are ignored. " +
-                             "Default values: pageIndex = 0, pageSize = 50")
+                             "With paginationMode = KEYSET facts are ordered by finishTime and id, pageIndex is " +
+                             "ignored, next page is requested with nextContinuationToken from previous response " +
+                             "and totalPages is returned only if includeTotalPages = true. " +
+                             "Facts archived by retention are returned only if includeArchived = true. " +
+                             "Default values: pageIndex = 0, pageSize = 50, paginationMode = OFFSET")
     @ApiResponse(
             responseCode = "200",
             description = "Retrieved",
@@ -170,10 +278,67 @@ public class ExecutionFactController {
         return result;
     }
 
+    @PostMapping(path = "/_stats")
+    @Operation(description = "Returns count, total and average duration in seconds of finished execution facts " +
+                             "grouped by executor and bucket (DAY, MONTH or YEAR, default DAY) for given filter. " +
+                             "Statistics are refreshed in background, refreshedAt tells how fresh they are. " +
+                             "Finish time range is applied with day precision, description filter is not supported, " +
+                             "pagination parameters are ignored.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Retrieved",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = GetExecutionFactStatsDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Given filter is invalid, detailed message provided"
+    )
+    public GetExecutionFactStatsDto getStats(@RequestBody ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                                             @RequestParam(defaultValue = "DAY") StatsBucket bucket) {
+        log.debug("getting execution fact statistics by {} for {}", bucket, factFilterOptionsDto);
+        GetExecutionFactStatsDto result = factService.getStats(factFilterOptionsDto, bucket);
+        log.debug("got execution fact statistics {}", result);
+        return result;
+    }
+
+    @PostMapping(path = "/_percentiles")
+    @Operation(description = "Returns percentiles (default 0.5, 0.95 and 0.99) of duration in milliseconds of finished " +
+                             "execution facts grouped by executor and bucket (HOUR or DAY, default HOUR) for given " +
+                             "filter. Percentiles are estimated from histograms refreshed in background with error " +
+                             "within 9%, refreshedAt tells how fresh they are. Finish time range is applied with hour " +
+                             "precision, description filter is not supported, pagination parameters are ignored.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Retrieved",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = GetExecutionFactDurationPercentilesDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Given filter or percentiles are invalid, detailed message provided"
+    )
+    public GetExecutionFactDurationPercentilesDto getDurationPercentiles(
+            @RequestBody ExecutionFactFilterOptionsDto factFilterOptionsDto,
+            @RequestParam(defaultValue = "HOUR") PercentileBucket bucket,
+            @RequestParam(defaultValue = "0.5,0.95,0.99") List<Double> percentiles) {
+        log.debug("getting execution fact duration percentiles {} by {} for {}", percentiles, bucket, factFilterOptionsDto);
+        GetExecutionFactDurationPercentilesDto result =
+                factService.getDurationPercentiles(factFilterOptionsDto, bucket, percentiles);
+        log.debug("got execution fact duration percentiles {}", result);
+        return result;
+    }
+
     @PostMapping(value = "/_report", produces = "application/csv")
-    @Operation(description = "Generates csv file containing all based on given filter. Pagination is zero based. " +
+    @Operation(description = "Generates csv file containing all facts based on given filter. " +
+                             "Rows are streamed as they are read from database, pagination parameters are " +
+                             "validated but ignored. " +
                              "If fromFinishTime or toFinishTime is null then both of them are ignored. " +
-                             "Default values: pageIndex = 0, pageSize = 50")
+                             "Facts archived by retention are included only if includeArchived = true.")
     @ApiResponse(
             responseCode = "200",
             description = "Retrieved",
@@ -191,18 +356,28 @@ public class ExecutionFactController {
                     )
             )
     )
-    public ResponseEntity<Resource> generateReport(@RequestBody ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+    public void generateReport(@RequestBody ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                               HttpServletResponse response) {
         log.debug("getting execution files in csv format by filter {}", factFilterOptionsDto);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=execution-facts.csv")
-                .contentType(MediaType.parseMediaType("application/csv"))
-                .body(new InputStreamResource(factService.generateCsvReport(factFilterOptionsDto)));
+        factService.generateCsvReport(factFilterOptionsDto, () -> openCsvAttachment(response));
+    }
+
+    private OutputStream openCsvAttachment(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=execution-facts.csv");
+        response.setContentType("application/csv");
+        try {
+            return response.getOutputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @PostMapping("/upload")
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(description = "Writes all valid execution facts from given json file to database." +
-            " It returns count of added execution facts and list of declined objects and info what is wrong with them.")
+            " File is parsed incrementally, so its size is not limited by memory." +
+            " It returns count of added execution facts and list of declined objects and info what is wrong with them." +
+            " Only first configured amount of declined objects is listed.")
     @ApiResponse(
             responseCode = "201",
             description = "Valid facts where saved.",
@@ -211,6 +386,14 @@ public class ExecutionFactController {
                     schema = @Schema(implementation = ExecutionFactUploadResultDto.class)
             )
     )
+    @ApiResponse(
+            responseCode = "400",
+            description = "File is not json array of facts. Returns counts of facts imported before it broke.",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExecutionFactUploadFailureDto.class)
+            )
+    )
     public ExecutionFactUploadResultDto uploadFromFile(@RequestParam("file") MultipartFile multipart) {
         log.debug("uploading execution facts from file");
         ExecutionFactUploadResultDto result = factService.uploadFromFile(multipart);
@@ -218,4 +401,113 @@ public class ExecutionFactController {
         return result;
     }
 
+    @GetMapping("/upload/progress")
+    @Operation(description = "Returns progress of uploads that are currently running, oldest first.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Retrieved",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(
+                            schema = @Schema(implementation = ExecutionFactUploadProgressDto.class)
+                    )
+            )
+    )
+    public List<ExecutionFactUploadProgressDto> getUploadsInProgress() {
+        return factService.getUploadsInProgress();
+    }
+
+    @PostMapping("/upload/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(description = "Saves given json file and imports it in background, every batch of facts is " +
+            "committed separately. Returns id of upload job that can be polled for result.")
+    @ApiResponse(
+            responseCode = "202",
+            description = "Upload job was queued.",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(pattern = """
+                            {
+                                "id": "0cecc52a-2342-4dfd-83e6-dd6a38a3c119"
+                            }
+                            """)
+            )
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Upload queue is full, request should be retried later.",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
+    public ResponseEntity<Map<String, UUID>> submitUploadJob(@RequestParam("file") MultipartFile multipart) {
+        log.debug("submitting execution facts upload job");
+        UUID id = uploadJobService.submit(multipart);
+        log.debug("submitted upload job with id {}", id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED.value())
+                .body(Map.of("id", id));
+    }
+
+    @GetMapping("/upload/jobs/{id}")
+    @Operation(description = "Returns state of upload job: imported and failed counts and declined objects. " +
+            "Finished jobs are available only for configured retention.")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Retrieved",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExecutionFactUploadJobDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Means that upload job with given id was not found",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
+    public ExecutionFactUploadJobDto getUploadJob(@PathVariable UUID id) {
+        log.debug("getting upload job by id {}", id);
+        ExecutionFactUploadJobDto job = uploadJobService.getById(id);
+        log.debug("got upload job {}", job);
+        return job;
+    }
+
+    /**
+     * Parses If-Match as defined by RFC 9110: either * or comma separated list of entity tags.
+     * If-Match uses strong comparison, so weak tags are skipped like malformed ones.
+     * @return values of strong entity tags, null if header is *
+     */
+    @Nullable
+    private static List<String> parseIfMatch(String ifMatch) {
+        if (ifMatch.strip().equals("*")) {
+            return null;
+        }
+        List<String> strongTags = new ArrayList<>();
+        int position = 0;
+        while (position < ifMatch.length()) {
+            char current = ifMatch.charAt(position);
+            if (current == ',' || Character.isWhitespace(current)) {
+                position++;
+                continue;
+            }
+            boolean weak = ifMatch.startsWith("W/", position);
+            int opening = weak ? position + 2 : position;
+            int closing = opening < ifMatch.length() && ifMatch.charAt(opening) == '"' ?
+                    ifMatch.indexOf('"', opening + 1) : -1;
+            if (closing < 0) {
+                int nextComma = ifMatch.indexOf(',', position);
+                position = nextComma < 0 ? ifMatch.length() : nextComma + 1;
+                continue;
+            }
+            if (!weak) {
+                strongTags.add(ifMatch.substring(opening + 1, closing));
+            }
+            position = closing + 1;
+        }
+        return strongTags;
+    }
+
 }
@@ -5,9 +5,13 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.GetParticipantsPageDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.example.task2restapi.dto.ParticipantRegistrationResultDto;
 import org.example.task2restapi.dto.RegisterParticipantDto;
 import org.example.task2restapi.dto.UpdateParticipantDto;
 import org.example.task2restapi.service.ParticipantService;
@@ -21,8 +25,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -35,9 +44,10 @@ public class ParticipantController {
 
     private final ParticipantService participantService;
 
-    @GetMapping
+    @GetMapping(params = "!paginationMode")
     @Operation(
-            description = "Returns list of registered participants"
+            description = "Returns list of all registered participants ordered by id. " +
+                          "It is written as participants are read, so it does not have to fit in memory."
     )
     @ApiResponse(
             responseCode = "200",
@@ -48,11 +58,70 @@ public class ParticipantController {
                     )
             )
     )
-    public List<GetParticipantDto> getParticipants() {
+    public void getParticipants(HttpServletResponse response) {
         log.debug("getting all participants");
-        List<GetParticipantDto> all = participantService.findAll();
-        log.debug("got: {}", all);
-        return all;
+        participantService.writeAll(() -> openJson(response));
+    }
+
+    @GetMapping(params = "paginationMode")
+    @Operation(
+            description = "Returns page of registered participants ordered by id, only KEYSET pagination mode " +
+                          "is supported. Next page is requested with continuation token of previous page."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = GetParticipantsPageDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Pagination mode is not supported, page size is out of bounds " +
+                          "or continuation token is malformed",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
+    public GetParticipantsPageDto getParticipantsPage(@RequestParam PaginationMode paginationMode,
+                                                      @RequestParam(required = false) Integer pageSize,
+                                                      @RequestParam(required = false) String continuationToken) {
+        log.debug("getting participants page of size {} by token {}", pageSize, continuationToken);
+        return participantService.findPage(paginationMode, continuationToken, pageSize);
+    }
+
+    @GetMapping(value = "/_stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            description = "Streams all registered participants ordered by id as newline delimited json."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = GetParticipantDto.class)
+            )
+    )
+    public void streamParticipants(HttpServletResponse response) {
+        log.debug("streaming all participants");
+        participantService.streamAll(() -> openNdjson(response));
+    }
+
+    private OutputStream openJson(HttpServletResponse response) {
+        return open(response, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private OutputStream openNdjson(HttpServletResponse response) {
+        return open(response, MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    private OutputStream open(HttpServletResponse response, String contentType) {
+        response.setContentType(contentType);
+        try {
+            return response.getOutputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @PostMapping
@@ -79,6 +148,36 @@ public class ParticipantController {
                 .body(Map.of("id", id));
     }
 
+    @PostMapping("/_bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(
+            description = "Registers all valid participants from given list at once. " +
+                          "It returns count of registered participants and list of declined objects " +
+                          "and info what is wrong with them."
+    )
+    @ApiResponse(
+            responseCode = "201",
+            description = "Valid participants were registered.",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ParticipantRegistrationResultDto.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Given list is too large",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ExceptionResponse.class)
+            )
+    )
+    public ParticipantRegistrationResultDto registerAll(@RequestBody List<RegisterParticipantDto> participantDtos) {
+        log.debug("registering {} participants", participantDtos.size());
+        ParticipantRegistrationResultDto result = participantService.registerAll(participantDtos);
+        log.debug("registration result: {}", result);
+        return result;
+    }
+
     @PutMapping("/{id}")
     @Operation(
             description = "Updates participant with given id with data from UpdateParticipantDto." +
@@ -2,8 +2,14 @@ package org.example.task2restapi.controller;
 
 import lombok.Generated;
 import lombok.RequiredArgsConstructor;
+import org.example.task2restapi.dto.ExecutionFactUploadFailureDto;
+import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+import org.example.task2restapi.service.ArchivedExecutionFactException;
 import org.example.task2restapi.service.DateTimeService;
+import org.example.task2restapi.service.StaleVersionException;
+import org.example.task2restapi.service.UploadFailedException;
 import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -73,4 +79,52 @@ public class RestControllerExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler(StaleVersionException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ExceptionResponse handleStaleVersionException(
+            StaleVersionException e) {
+        return ExceptionResponse.builder()
+                .withMessage(e.getMessage())
+                .withHttpStatus(HttpStatus.PRECONDITION_FAILED)
+                .withDate(dateTimeService.utcNow())
+                .build();
+    }
+
+    @ExceptionHandler(ArchivedExecutionFactException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionResponse handleArchivedExecutionFactException(
+            ArchivedExecutionFactException e) {
+        return ExceptionResponse.builder()
+                .withMessage(e.getMessage())
+                .withHttpStatus(HttpStatus.CONFLICT)
+                .withDate(dateTimeService.utcNow())
+                .build();
+    }
+
+    @ExceptionHandler(UploadFailedException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ExecutionFactUploadFailureDto handleUploadFailedException(
+            UploadFailedException e) {
+        ExecutionFactUploadResultDto partialResult = e.getPartialResult();
+        return ExecutionFactUploadFailureDto.builder()
+                .withMessage(e.getMessage())
+                .withHttpStatus(HttpStatus.BAD_REQUEST)
+                .withDate(dateTimeService.utcNow())
+                .withImportedCount(partialResult.getImportedCount())
+                .withFailedCount(partialResult.getFailedCount())
+                .withObjectToItsErrors(partialResult.getObjectToItsErrors())
+                .build();
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ExceptionResponse handleTaskRejectedException(
+            TaskRejectedException e) {
+        return ExceptionResponse.builder()
+                .withMessage("Server is busy, try again later.")
+                .withHttpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .withDate(dateTimeService.utcNow())
+                .build();
+    }
+
 }
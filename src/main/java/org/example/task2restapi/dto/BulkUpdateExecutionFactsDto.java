@@ -0,0 +1,32 @@
+package org.example.task2restapi.dto;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.Length;
+
+import java.util.UUID;
+
+/**
+ * New values for all facts by filter, null values are not changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateExecutionFactsDto {
+
+    @NotNull(message = "Filter must be specified")
+    @Valid
+    private ExecutionFactFilterOptionsDto filter;
+
+    @Nullable
+    private UUID executorId;
+
+    @Nullable
+    @Length(min = 1, max = 500)
+    private String description;
+
+}
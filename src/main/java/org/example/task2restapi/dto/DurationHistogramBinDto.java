@@ -0,0 +1,28 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Count of facts of one executor in one time bucket whose duration falls into one histogram bin.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DurationHistogramBinDto {
+
+    private UUID executorId;
+
+    private String executorFullName;
+
+    private LocalDateTime bucketStart;
+
+    private Integer bin;
+
+    private Long factCount;
+
+}
@@ -0,0 +1,16 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DurationPercentileDto {
+
+    private Double percentile;
+
+    private Long durationMillis;
+
+}
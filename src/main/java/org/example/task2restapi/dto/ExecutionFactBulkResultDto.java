@@ -0,0 +1,12 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionFactBulkResultDto {
+    private Long affectedCount;
+}
@@ -0,0 +1,33 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Duration percentiles of finished facts of one executor in one bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+public class ExecutionFactDurationPercentilesDto {
+
+    private UUID executorId;
+
+    private String executorFullName;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime bucketStart;
+
+    private Long factCount;
+
+    private List<DurationPercentileDto> percentiles;
+
+}
@@ -40,6 +40,21 @@ public class ExecutionFactFilterOptionsDto implements ObjectWithDateTimeRanges {
     @Nullable
     @Positive
     private Integer pageSize;
+    @Nullable
+    private PaginationMode paginationMode;
+    @Nullable
+    private String continuationToken;
+    @Nullable
+    private Boolean includeTotalPages;
+    @Nullable
+    private Boolean includeArchived;
+
+    public ExecutionFactFilterOptionsDto(String executorEmail, LocalDateTime fromFinishTime,
+                                         LocalDateTime toFinishTime, String description,
+                                         Integer pageIndex, Integer pageSize) {
+        this(executorEmail, fromFinishTime, toFinishTime, description, pageIndex, pageSize,
+                null, null, null, null);
+    }
 
     @Override
     @JsonIgnore
@@ -0,0 +1,34 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Statistics of finished facts of one executor in one bucket, durations are in seconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+public class ExecutionFactStatsDto {
+
+    private UUID executorId;
+
+    private String executorFullName;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bucketStart;
+
+    private Long factCount;
+
+    private Long totalDurationSeconds;
+
+    private Double averageDurationSeconds;
+
+}
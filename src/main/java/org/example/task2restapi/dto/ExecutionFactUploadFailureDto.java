@@ -0,0 +1,28 @@
+package org.example.task2restapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder(setterPrefix = "with")
+public class ExecutionFactUploadFailureDto {
+
+    private final String message;
+
+    private final HttpStatus httpStatus;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private final LocalDateTime date;
+
+    private final Integer importedCount;
+
+    private final Integer failedCount;
+
+    private final List<RecordFactToItsValidationExceptions> objectToItsErrors;
+
+}
@@ -0,0 +1,19 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Versions of execution fact and its executor, detailed fact dto changes only if one of them changes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionFactVersionDto {
+
+    private Long factVersion;
+
+    private Long executorVersion;
+
+}
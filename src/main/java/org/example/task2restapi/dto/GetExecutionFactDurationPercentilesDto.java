@@ -0,0 +1,26 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+public class GetExecutionFactDurationPercentilesDto {
+
+    private List<ExecutionFactDurationPercentilesDto> buckets;
+
+    /**
+     * Time of oldest refresh of histograms percentiles are estimated from, null if there are no histograms.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime refreshedAt;
+
+}
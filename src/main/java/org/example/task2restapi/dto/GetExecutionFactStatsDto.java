@@ -0,0 +1,27 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+public class GetExecutionFactStatsDto {
+
+    private List<ExecutionFactStatsDto> stats;
+
+    /**
+     * Time of oldest refresh of returned statistics, facts changed after it are not reflected yet.
+     * Null if there are no statistics.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime refreshedAt;
+
+}
@@ -14,4 +14,5 @@ import java.util.List;
 public class GetFilteredExecutionFactsDto {
     private List<GetExecutionFactDto> executionFacts;
     private Integer totalPages;
+    private String nextContinuationToken;
 }
@@ -0,0 +1,17 @@
+package org.example.task2restapi.dto;
+
+/**
+ * Defines how requested page of execution facts or participants is located.
+ */
+public enum PaginationMode {
+    /**
+     * Page is located by its zero based index, total pages are always counted.
+     */
+    OFFSET,
+    /**
+     * Page is located right after item encoded in continuation token, facts are ordered by finish time and id,
+     * participants by id.
+     * Latency does not depend on how deep client reads, total pages are counted only on demand.
+     */
+    KEYSET
+}
@@ -0,0 +1,16 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipantRegistrationResultDto {
+    private Integer registeredCount;
+    private Integer failedCount;
+    private List<RegisterParticipantToItsValidationExceptions> objectToItsErrors;
+}
@@ -0,0 +1,9 @@
+package org.example.task2restapi.dto;
+
+/**
+ * Period by which execution duration percentiles are grouped, buckets start at beginning of period.
+ */
+public enum PercentileBucket {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,10 @@
+package org.example.task2restapi.dto;
+
+/**
+ * Period by which execution fact statistics are grouped, buckets start at first day of period.
+ */
+public enum StatsBucket {
+    DAY,
+    MONTH,
+    YEAR
+}
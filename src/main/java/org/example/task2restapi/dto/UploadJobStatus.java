@@ -0,0 +1,11 @@
+package org.example.task2restapi.dto;
+
+public enum UploadJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    /**
+     * Import was interrupted, e.g. because of invalid json, batches imported before are kept.
+     */
+    FAILED
+}
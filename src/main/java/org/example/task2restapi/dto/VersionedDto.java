@@ -0,0 +1,19 @@
+package org.example.task2restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Value together with opaque token that changes whenever value changes, used as ETag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionedDto<T> {
+
+    private String version;
+
+    private T value;
+
+}
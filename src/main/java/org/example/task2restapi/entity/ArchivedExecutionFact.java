@@ -0,0 +1,36 @@
+package org.example.task2restapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execution fact moved out of execution_facts by retention, it is only read by filters that include archived facts.
+ */
+@Entity(name = "ArchivedExecutionFact")
+@Table(
+        name = "execution_facts_archive",
+        indexes = {
+                @Index(name = "archive_executor_finish_time_index", columnList = "executor_id, finish_time, id"),
+                @Index(name = "archive_finish_time_index", columnList = "finish_time, id")
+        }
+)
+@Getter
+@Setter
+@ToString(callSuper = true)
+@SuperBuilder(setterPrefix = "with")
+@NoArgsConstructor
+public class ArchivedExecutionFact extends AbstractExecutionFact {
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+}
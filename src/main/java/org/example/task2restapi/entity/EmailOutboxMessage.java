@@ -0,0 +1,83 @@
+package org.example.task2restapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Kafka message waiting to be published, payload is json of SimpleEmailDto.
+ */
+@Entity(name = "EmailOutboxMessage")
+@Table(
+        name = "email_outbox",
+        indexes = {
+                @Index(name = "email_outbox_unsent_index", columnList = "sent_at, created_at")
+        }
+)
+@Getter
+@Setter
+@ToString
+@Builder(setterPrefix = "with")
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", nullable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "message_key", nullable = false)
+    private String messageKey;
+
+    @Column(
+            name = "payload",
+            columnDefinition = "varchar(4000)",
+            nullable = false
+    )
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Null until message is acknowledged by broker.
+     */
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    /**
+     * Count of failed publish attempts.
+     */
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    /**
+     * Message is not published before this time, null if it was never claimed by relay.
+     */
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Set when message can not be published at all, parked messages are not published anymore.
+     */
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+}
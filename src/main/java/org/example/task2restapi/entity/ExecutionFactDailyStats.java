@@ -0,0 +1,63 @@
+package org.example.task2restapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Summary of finished execution facts of one executor by finish day, recomputed from execution_facts
+ * and execution_facts_archive by {@link org.example.task2restapi.repository.ExecutionFactDailyStatsRepositoryCustom#refresh}.
+ */
+@Entity(name = "ExecutionFactDailyStats")
+@Table(
+        name = "execution_fact_daily_stats",
+        indexes = @Index(name = "daily_stats_finish_day_index", columnList = "finish_day")
+)
+@IdClass(ExecutionFactDailyStatsId.class)
+@Immutable
+@Getter
+@ToString
+@NoArgsConstructor
+public class ExecutionFactDailyStats {
+
+    @Id
+    @Column(name = "executor_id", nullable = false, columnDefinition = "uuid")
+    private UUID executorId;
+
+    @Id
+    @Column(name = "finish_day", nullable = false)
+    private LocalDate finishDay;
+
+    @Id
+    @Column(name = "archived", nullable = false)
+    private Boolean archived;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "executor_id", referencedColumnName = "id", insertable = false, updatable = false)
+    private Participant executor;
+
+    @Column(name = "fact_count", nullable = false)
+    private Long factCount;
+
+    @Column(name = "total_duration_seconds", nullable = false)
+    private Long totalDurationSeconds;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+}
@@ -0,0 +1,22 @@
+package org.example.task2restapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionFactDailyStatsId implements Serializable {
+
+    private UUID executorId;
+
+    private LocalDate finishDay;
+
+    private Boolean archived;
+
+}
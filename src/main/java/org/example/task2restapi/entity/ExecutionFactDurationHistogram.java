@@ -0,0 +1,74 @@
+package org.example.task2restapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Log-scale histogram of durations of finished execution facts of one executor by finish hour.
+ * Bin i counts facts lasting from 2^(i / BINS_PER_DOUBLING) to 2^((i + 1) / BINS_PER_DOUBLING) milliseconds,
+ * so every bin is about 9% wide and histograms of any hours can be merged by adding counts of same bins.
+ * Recomputed by {@link org.example.task2restapi.repository.ExecutionFactDurationHistogramRepositoryCustom#refresh}.
+ */
+@Entity(name = "ExecutionFactDurationHistogram")
+@Table(
+        name = "execution_fact_duration_histogram",
+        indexes = @Index(name = "duration_histogram_finish_hour_index", columnList = "finish_hour")
+)
+@IdClass(ExecutionFactDurationHistogramId.class)
+@Immutable
+@Getter
+@ToString
+@NoArgsConstructor
+public class ExecutionFactDurationHistogram {
+
+    public static final int BINS_PER_DOUBLING = 8;
+
+    @Id
+    @Column(name = "executor_id", nullable = false, columnDefinition = "uuid")
+    private UUID executorId;
+
+    @Id
+    @Column(name = "finish_hour", nullable = false)
+    private LocalDateTime finishHour;
+
+    @Id
+    @Column(name = "archived", nullable = false)
+    private Boolean archived;
+
+    @Id
+    @Column(name = "bin", nullable = false)
+    private Integer bin;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "executor_id", referencedColumnName = "id", insertable = false, updatable = false)
+    private Participant executor;
+
+    @Column(name = "fact_count", nullable = false)
+    private Long factCount;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    /**
+     * @return shortest duration counted by given bin
+     */
+    public static double binLowerBoundMillis(int bin) {
+        return Math.pow(2, (double) bin / BINS_PER_DOUBLING);
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.example.task2restapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionFactDurationHistogramId implements Serializable {
+
+    private UUID executorId;
+
+    private LocalDateTime finishHour;
+
+    private Boolean archived;
+
+    private Integer bin;
+
+}
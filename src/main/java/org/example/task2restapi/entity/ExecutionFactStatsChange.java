@@ -0,0 +1,45 @@
+package org.example.task2restapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Finish day whose facts were changed after statistics table was refreshed. Rows are appended by writes
+ * in their transactions and deleted by refresh of the statistics table once the day is recomputed.
+ */
+@Entity(name = "ExecutionFactStatsChange")
+@Table(
+        name = "execution_fact_stats_changes",
+        indexes = {
+                @Index(name = "stats_changes_stats_index", columnList = "stats, id")
+        }
+)
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ExecutionFactStatsChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "stats", nullable = false, length = 100)
+    private String stats;
+
+    @Column(name = "finish_day", nullable = false)
+    private LocalDate finishDay;
+
+}
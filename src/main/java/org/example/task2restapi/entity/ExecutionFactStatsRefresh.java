@@ -0,0 +1,37 @@
+package org.example.task2restapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh state of one statistics table: row is locked while table is refreshed,
+ * refresh time is null until first refresh.
+ */
+@Entity(name = "ExecutionFactStatsRefresh")
+@Table(name = "execution_fact_stats_refresh")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ExecutionFactStatsRefresh {
+
+    public static final String DAILY_STATS = "execution_fact_daily_stats";
+
+    public static final String DURATION_HISTOGRAM = "execution_fact_duration_histogram";
+
+    @Id
+    @Column(name = "stats", nullable = false, length = 100)
+    private String stats;
+
+    @Column(name = "refreshed_at")
+    private LocalDateTime refreshedAt;
+
+}
@@ -2,7 +2,6 @@ package org.example.task2restapi.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.Table;
@@ -15,6 +14,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.example.task2restapi.entity.generator.UuidV7;
 import org.hibernate.validator.constraints.Length;
 
 import java.util.Objects;
@@ -24,7 +24,7 @@ import java.util.UUID;
 @Table(
         name = "participants",
         uniqueConstraints = @UniqueConstraint(
-                name = "participants_email_key",
+                name = Participant.EMAIL_UNIQUE_CONSTRAINT,
                 columnNames = "email"
         ),
         indexes = {
@@ -38,8 +38,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder(setterPrefix = "with")
 public class Participant {
+
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "participants_email_key";
     @Id
-    @GeneratedValue
+    @UuidV7
     @Column(name = "id", nullable = false, columnDefinition="uuid")
     private UUID id;
 
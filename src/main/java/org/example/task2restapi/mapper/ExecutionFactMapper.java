@@ -0,0 +1,48 @@
+package org.example.task2restapi.mapper;
+
+import lombok.RequiredArgsConstructor;
+import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.entity.AbstractExecutionFact;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps ExecutionFact to its dtos and back without reflection, archived facts are mapped to detailed dto too.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExecutionFactMapper {
+
+    private final ParticipantMapper participantMapper;
+
+    private final DateTimeService dateTimeService;
+
+    public GetDetailedExecutionFactDto toDetailedDto(AbstractExecutionFact fact) {
+        return new GetDetailedExecutionFactDto(
+                fact.getId(),
+                fact.getStartTime(),
+                fact.getFinishTime(),
+                fact.getDescription(),
+                participantMapper.toGetDto(fact.getExecutor())
+        );
+    }
+
+    /**
+     * If given dto does not have start time then current time by UTC is assigned.
+     * @param factDto fact to be mapped
+     * @param executor already resolved executor of fact
+     * @return new fact without id
+     */
+    public ExecutionFact toEntity(RecordExecutionFactDto factDto, Participant executor) {
+        return ExecutionFact.builder()
+                .withExecutor(executor)
+                .withDescription(factDto.getDescription())
+                .withStartTime(factDto.getStartTime() == null ? dateTimeService.utcNow() : factDto.getStartTime())
+                .withFinishTime(factDto.getFinishTime())
+                .build();
+    }
+
+}
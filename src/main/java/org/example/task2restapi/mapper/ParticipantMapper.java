@@ -0,0 +1,28 @@
+package org.example.task2restapi.mapper;
+
+import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.RegisterParticipantDto;
+import org.example.task2restapi.entity.Participant;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps Participant to its dtos and back without reflection.
+ */
+@Component
+public class ParticipantMapper {
+
+    public GetParticipantDto toGetDto(Participant participant) {
+        return new GetParticipantDto(participant.getId(), participant.getFullName(), participant.getEmail());
+    }
+
+    /**
+     * @return new participant without id
+     */
+    public Participant toEntity(RegisterParticipantDto participantDto) {
+        return Participant.builder()
+                .withFullName(participantDto.getFullName())
+                .withEmail(participantDto.getEmail())
+                .build();
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.ArchivedExecutionFact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Archived facts are written only by {@link ExecutionFactRepositoryCustom#archiveFinishedBefore}.
+ */
+@Repository
+public interface ArchivedExecutionFactRepository extends JpaRepository<ArchivedExecutionFact, UUID> {
+
+    @Query("select f from ArchivedExecutionFact f join fetch f.executor where f.id = :id")
+    Optional<ArchivedExecutionFact> findWithExecutorById(@Param("id") UUID id);
+
+}
@@ -0,0 +1,31 @@
+package org.example.task2restapi.repository;
+
+import jakarta.transaction.Transactional;
+import org.example.task2restapi.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID>, EmailOutboxRepositoryCustom {
+
+    @Transactional
+    @Modifying
+    @Query("update EmailOutboxMessage m set m.sentAt = :sentAt where m.id in :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Parks given messages, so they are not published anymore.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutboxMessage m set m.parkedAt = :parkedAt where m.id in :ids")
+    int park(@Param("ids") Collection<UUID> ids, @Param("parkedAt") LocalDateTime parkedAt);
+
+}
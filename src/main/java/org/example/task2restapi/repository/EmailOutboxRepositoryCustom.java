@@ -0,0 +1,42 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.EmailOutboxMessage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Relay operations of email outbox, every method runs in its own short transaction.
+ */
+public interface EmailOutboxRepositoryCustom {
+
+    /**
+     * Claims oldest unsent and not parked messages which are due for publishing by moving their next attempt time
+     * to given lease end. Rows locked by other relays are skipped and claimed rows are not returned to other relays
+     * until lease ends, so every message is published by one relay at a time without holding locks while
+     * broker acknowledges it.
+     * @param now current time
+     * @param leaseUntil claimed messages are not claimed again before it unless their publishing fails
+     * @param limit max amount of claimed messages
+     * @return claimed messages detached from persistence context
+     */
+    List<EmailOutboxMessage> claimUnsent(LocalDateTime now, LocalDateTime leaseUntil, int limit);
+
+    /**
+     * Counts failed attempt of given messages, so they are retried since given time.
+     * @param ids ids of messages not acknowledged by broker
+     * @param nextAttemptAt messages are not claimed before it
+     */
+    void recordFailure(Collection<UUID> ids, LocalDateTime nextAttemptAt);
+
+    /**
+     * Deletes oldest messages sent before given time.
+     * @param sentBefore messages sent strictly before it are deleted
+     * @param limit max amount of deleted messages
+     * @return count of deleted messages, less than limit if there are no more messages to delete
+     */
+    int deleteSentBefore(LocalDateTime sentBefore, int limit);
+
+}
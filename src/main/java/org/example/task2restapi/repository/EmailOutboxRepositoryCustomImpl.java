@@ -0,0 +1,66 @@
+package org.example.task2restapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.example.task2restapi.entity.EmailOutboxMessage;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public class EmailOutboxRepositoryCustomImpl implements EmailOutboxRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<EmailOutboxMessage> claimUnsent(LocalDateTime now, LocalDateTime leaseUntil, int limit) {
+        List<EmailOutboxMessage> claimed = entityManager.createQuery(
+                        "select m from EmailOutboxMessage m " +
+                        "where m.sentAt is null and m.parkedAt is null " +
+                        "and (m.nextAttemptAt is null or m.nextAttemptAt <= :now) " +
+                        "order by m.createdAt", EmailOutboxMessage.class)
+                .setParameter("now", now)
+                .setMaxResults(limit)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableSettings.JAKARTA_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .getResultList();
+        claimed.forEach(message -> message.setNextAttemptAt(leaseUntil));
+        return claimed;
+    }
+
+    @Override
+    @Transactional
+    public void recordFailure(Collection<UUID> ids, LocalDateTime nextAttemptAt) {
+        entityManager.createQuery(
+                        "update EmailOutboxMessage m set m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt " +
+                        "where m.id in :ids")
+                .setParameter("ids", ids)
+                .setParameter("nextAttemptAt", nextAttemptAt)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int deleteSentBefore(LocalDateTime sentBefore, int limit) {
+        List<UUID> ids = entityManager.createQuery(
+                        "select m.id from EmailOutboxMessage m where m.sentAt < :sentBefore order by m.sentAt",
+                        UUID.class)
+                .setParameter("sentBefore", sentBefore)
+                .setMaxResults(limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery("delete from EmailOutboxMessage m where m.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.ExecutionFactDailyStats;
+import org.example.task2restapi.entity.ExecutionFactDailyStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExecutionFactDailyStatsRepository extends JpaRepository<ExecutionFactDailyStats, ExecutionFactDailyStatsId>,
+        ExecutionFactDailyStatsRepositoryCustom {
+}
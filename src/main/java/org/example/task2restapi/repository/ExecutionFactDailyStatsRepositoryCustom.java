@@ -0,0 +1,35 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.dto.ExecutionFactStatsDto;
+import org.example.task2restapi.dto.StatsBucket;
+import org.example.task2restapi.entity.ExecutionFactDailyStats;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalInt;
+
+public interface ExecutionFactDailyStatsRepositoryCustom {
+
+    /**
+     * Daily rows are summed up to requested bucket by database, so amount of read rows does not depend
+     * on amount of facts. Results are ordered by bucket start and executor id.
+     * @param specification filter of daily rows
+     * @param bucket period to group by
+     * @return statistics by executor and bucket
+     */
+    List<ExecutionFactStatsDto> findStats(Specification<ExecutionFactDailyStats> specification, StatsBucket bucket);
+
+    /**
+     * Recomputes daily rows in single transaction, readers see previous rows until it is committed.
+     * All rows are computed on first refresh, afterwards only rows of days marked as changed in
+     * execution_fact_stats_changes are, hot and archived alike, and the marks are consumed batch by batch.
+     * Marks left by first refresh only cause recomputation of their days by the next one.
+     * Facts without finish time are not counted.
+     * @param refreshedAt time stored with recomputed rows and as time of refresh
+     * @param changesBatchSize max amount of marks consumed by one statement
+     * @return count of stored rows, empty if daily rows are being refreshed by other transaction
+     */
+    OptionalInt refresh(LocalDateTime refreshedAt, int changesBatchSize);
+
+}
@@ -0,0 +1,177 @@
+package org.example.task2restapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.transaction.Transactional;
+import org.example.task2restapi.dto.ExecutionFactStatsDto;
+import org.example.task2restapi.dto.StatsBucket;
+import org.example.task2restapi.entity.ExecutionFactDailyStats;
+import org.example.task2restapi.entity.ExecutionFactDailyStats_;
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.entity.Participant_;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+public class ExecutionFactDailyStatsRepositoryCustomImpl implements ExecutionFactDailyStatsRepositoryCustom {
+
+    private static final String REFRESH_QUERY = """
+            insert into execution_fact_daily_stats
+            (executor_id, finish_day, archived, fact_count, total_duration_seconds, refreshed_at)
+            select executor_id, cast(finish_time as date), %s, count(*),
+            cast(sum(extract(epoch from finish_time) - extract(epoch from start_time)) as bigint), :refreshedAt
+            from %s
+            where finish_time is not null
+            group by executor_id, cast(finish_time as date)""";
+
+    private static final String CHANGED_DAYS_QUERY = """
+            select distinct finish_day as changed_day
+            from execution_fact_stats_changes
+            where id in (:changeIds)""";
+
+    private static final String DELETE_CHANGED_DAYS_QUERY = """
+            delete from execution_fact_daily_stats
+            where finish_day in (%s)""".formatted(CHANGED_DAYS_QUERY);
+
+    /**
+     * Facts of given table finished on changed days, read by finish time ranges, so they are found by index.
+     */
+    private static final String CHANGED_DAYS_SOURCE = """
+            %%s
+            join (%s) changed_days
+            on finish_time >= changed_day and finish_time < changed_day + interval '1' day"""
+            .formatted(CHANGED_DAYS_QUERY);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ExecutionFactStatsRefreshRepository refreshRepository;
+
+    private final ExecutionFactStatsChangeRepository changeRepository;
+
+    public ExecutionFactDailyStatsRepositoryCustomImpl(ExecutionFactStatsRefreshRepository refreshRepository,
+                                                       ExecutionFactStatsChangeRepository changeRepository) {
+        this.refreshRepository = refreshRepository;
+        this.changeRepository = changeRepository;
+    }
+
+    @Override
+    public List<ExecutionFactStatsDto> findStats(Specification<ExecutionFactDailyStats> specification,
+                                                 StatsBucket bucket) {
+        HibernateCriteriaBuilder builder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<ExecutionFactDailyStats> root = query.from(ExecutionFactDailyStats.class);
+        Join<ExecutionFactDailyStats, Participant> executor = root.join(ExecutionFactDailyStats_.executor);
+        Path<LocalDate> finishDay = root.get(ExecutionFactDailyStats_.finishDay);
+        Map<String, Expression<Integer>> bucketParts = new LinkedHashMap<>();
+        bucketParts.put("year", builder.year(finishDay));
+        if (bucket != StatsBucket.YEAR) {
+            bucketParts.put("month", builder.month(finishDay));
+        }
+        if (bucket == StatsBucket.DAY) {
+            bucketParts.put("day", builder.day(finishDay));
+        }
+        List<Selection<?>> selections = new ArrayList<>();
+        bucketParts.forEach((name, part) -> selections.add(part.alias(name)));
+        selections.add(executor.get(Participant_.id).alias("executorId"));
+        selections.add(executor.get(Participant_.fullName).alias("executorFullName"));
+        selections.add(builder.sum(root.get(ExecutionFactDailyStats_.factCount)).alias("factCount"));
+        selections.add(builder.sum(root.get(ExecutionFactDailyStats_.totalDurationSeconds)).alias("totalDurationSeconds"));
+        List<Expression<?>> groups = new ArrayList<>(bucketParts.values());
+        groups.add(executor.get(Participant_.id));
+        groups.add(executor.get(Participant_.fullName));
+        query.multiselect(selections)
+                .where(specification.toPredicate(root, query, builder))
+                .groupBy(groups);
+        return entityManager.createQuery(query).getResultStream()
+                .map(tuple -> toDto(tuple, bucket))
+                .sorted(Comparator.comparing(ExecutionFactStatsDto::getBucketStart)
+                        .thenComparing(ExecutionFactStatsDto::getExecutorId))
+                .toList();
+    }
+
+    private ExecutionFactStatsDto toDto(Tuple tuple, StatsBucket bucket) {
+        LocalDate bucketStart = LocalDate.of(
+                tuple.get("year", Integer.class),
+                bucket == StatsBucket.YEAR ? 1 : tuple.get("month", Integer.class),
+                bucket == StatsBucket.DAY ? tuple.get("day", Integer.class) : 1
+        );
+        long factCount = tuple.get("factCount", Long.class);
+        long totalDurationSeconds = tuple.get("totalDurationSeconds", Long.class);
+        return ExecutionFactStatsDto.builder()
+                .withExecutorId(tuple.get("executorId", UUID.class))
+                .withExecutorFullName(tuple.get("executorFullName", String.class))
+                .withBucketStart(bucketStart)
+                .withFactCount(factCount)
+                .withTotalDurationSeconds(totalDurationSeconds)
+                .withAverageDurationSeconds((double) totalDurationSeconds / factCount)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public OptionalInt refresh(LocalDateTime refreshedAt, int changesBatchSize) {
+        Optional<ExecutionFactStatsRefresh> refresh = refreshRepository.tryLock(ExecutionFactStatsRefresh.DAILY_STATS);
+        if (refresh.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        int refreshed = 0;
+        if (refresh.get().getRefreshedAt() == null) {
+            entityManager.createNativeQuery("delete from execution_fact_daily_stats").executeUpdate();
+            refreshed += entityManager.createNativeQuery(REFRESH_QUERY.formatted("false", "execution_facts"))
+                    .setParameter("refreshedAt", refreshedAt)
+                    .executeUpdate();
+            refreshed += entityManager.createNativeQuery(REFRESH_QUERY.formatted("true", "execution_facts_archive"))
+                    .setParameter("refreshedAt", refreshedAt)
+                    .executeUpdate();
+        } else {
+            List<Long> changeIds;
+            do {
+                changeIds = changeRepository.findIds(ExecutionFactStatsRefresh.DAILY_STATS, changesBatchSize);
+                if (changeIds.isEmpty()) {
+                    break;
+                }
+                refreshed += refreshChangedDays(refreshedAt, changeIds);
+            } while (changeIds.size() == changesBatchSize);
+        }
+        refresh.get().setRefreshedAt(refreshedAt);
+        return OptionalInt.of(refreshed);
+    }
+
+    private int refreshChangedDays(LocalDateTime refreshedAt, List<Long> changeIds) {
+        entityManager.createNativeQuery(DELETE_CHANGED_DAYS_QUERY)
+                .setParameter("changeIds", changeIds)
+                .executeUpdate();
+        int refreshed = 0;
+        for (String archived : List.of("false", "true")) {
+            String table = archived.equals("true") ? "execution_facts_archive" : "execution_facts";
+            refreshed += entityManager.createNativeQuery(
+                            REFRESH_QUERY.formatted(archived, CHANGED_DAYS_SOURCE.formatted(table)))
+                    .setParameter("refreshedAt", refreshedAt)
+                    .setParameter("changeIds", changeIds)
+                    .executeUpdate();
+        }
+        changeRepository.deleteAllByIdInBatch(changeIds);
+        return refreshed;
+    }
+
+}
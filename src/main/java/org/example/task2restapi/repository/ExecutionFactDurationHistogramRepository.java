@@ -0,0 +1,12 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogramId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExecutionFactDurationHistogramRepository
+        extends JpaRepository<ExecutionFactDurationHistogram, ExecutionFactDurationHistogramId>,
+        ExecutionFactDurationHistogramRepositoryCustom {
+}
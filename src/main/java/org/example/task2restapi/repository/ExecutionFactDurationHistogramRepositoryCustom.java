@@ -0,0 +1,35 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.dto.DurationHistogramBinDto;
+import org.example.task2restapi.dto.PercentileBucket;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalInt;
+
+public interface ExecutionFactDurationHistogramRepositoryCustom {
+
+    /**
+     * Hourly histograms are merged up to requested bucket by database.
+     * @param specification filter of hourly histograms
+     * @param bucket period to group by
+     * @return counts of facts by executor, bucket and bin
+     */
+    List<DurationHistogramBinDto> findBins(Specification<ExecutionFactDurationHistogram> specification,
+                                           PercentileBucket bucket);
+
+    /**
+     * Recomputes hourly histograms in single transaction, readers see previous rows until it is committed.
+     * All rows are computed on first refresh, afterwards only rows of hours within days marked as changed in
+     * execution_fact_stats_changes are, hot and archived alike, and the marks are consumed batch by batch.
+     * Marks left by first refresh only cause recomputation of their days by the next one.
+     * Facts without finish time are not counted.
+     * @param refreshedAt time stored with recomputed rows and as time of refresh
+     * @param changesBatchSize max amount of marks consumed by one statement
+     * @return count of stored rows, empty if histograms are being refreshed by other transaction
+     */
+    OptionalInt refresh(LocalDateTime refreshedAt, int changesBatchSize);
+
+}
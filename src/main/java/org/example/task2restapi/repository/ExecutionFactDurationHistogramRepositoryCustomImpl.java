@@ -0,0 +1,186 @@
+package org.example.task2restapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.transaction.Transactional;
+import org.example.task2restapi.dto.DurationHistogramBinDto;
+import org.example.task2restapi.dto.PercentileBucket;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram_;
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.entity.Participant_;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+public class ExecutionFactDurationHistogramRepositoryCustomImpl implements ExecutionFactDurationHistogramRepositoryCustom {
+
+    private static final String REFRESH_QUERY = """
+            insert into execution_fact_duration_histogram
+            (executor_id, finish_hour, archived, bin, fact_count, refreshed_at)
+            select executor_id, finish_hour, %s, bin, count(*), :refreshedAt
+            from (
+                select executor_id, date_trunc('hour', finish_time) as finish_hour,
+                cast(floor(%d * ln(greatest(
+                    (extract(epoch from finish_time) - extract(epoch from start_time)) * 1000, 1
+                )) / ln(2)) as int) as bin
+                from %s
+                where finish_time is not null
+            ) durations
+            group by executor_id, finish_hour, bin""";
+
+    private static final String CHANGED_DAYS_QUERY = """
+            select distinct finish_day as changed_day
+            from execution_fact_stats_changes
+            where id in (:changeIds)""";
+
+    private static final String DELETE_CHANGED_DAYS_QUERY = """
+            delete from execution_fact_duration_histogram
+            where exists (
+                select 1 from (%s) changed_days
+                where finish_hour >= changed_day and finish_hour < changed_day + interval '1' day
+            )""".formatted(CHANGED_DAYS_QUERY);
+
+    /**
+     * Facts of given table finished on changed days, read by finish time ranges, so they are found by index.
+     */
+    private static final String CHANGED_DAYS_SOURCE = """
+            %%s
+            join (%s) changed_days
+            on finish_time >= changed_day and finish_time < changed_day + interval '1' day"""
+            .formatted(CHANGED_DAYS_QUERY);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ExecutionFactStatsRefreshRepository refreshRepository;
+
+    private final ExecutionFactStatsChangeRepository changeRepository;
+
+    public ExecutionFactDurationHistogramRepositoryCustomImpl(ExecutionFactStatsRefreshRepository refreshRepository,
+                                                              ExecutionFactStatsChangeRepository changeRepository) {
+        this.refreshRepository = refreshRepository;
+        this.changeRepository = changeRepository;
+    }
+
+    @Override
+    public List<DurationHistogramBinDto> findBins(Specification<ExecutionFactDurationHistogram> specification,
+                                                  PercentileBucket bucket) {
+        HibernateCriteriaBuilder builder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<ExecutionFactDurationHistogram> root = query.from(ExecutionFactDurationHistogram.class);
+        Join<ExecutionFactDurationHistogram, Participant> executor = root.join(ExecutionFactDurationHistogram_.executor);
+        Path<LocalDateTime> finishHour = root.get(ExecutionFactDurationHistogram_.finishHour);
+        Map<String, Expression<?>> bucketParts = new LinkedHashMap<>();
+        if (bucket == PercentileBucket.HOUR) {
+            bucketParts.put("hour", finishHour);
+        } else {
+            bucketParts.put("year", builder.year(finishHour));
+            bucketParts.put("month", builder.month(finishHour));
+            bucketParts.put("day", builder.day(finishHour));
+        }
+        List<Selection<?>> selections = new ArrayList<>();
+        bucketParts.forEach((name, part) -> selections.add(part.alias(name)));
+        selections.add(executor.get(Participant_.id).alias("executorId"));
+        selections.add(executor.get(Participant_.fullName).alias("executorFullName"));
+        selections.add(root.get(ExecutionFactDurationHistogram_.bin).alias("bin"));
+        selections.add(builder.sum(root.get(ExecutionFactDurationHistogram_.factCount)).alias("factCount"));
+        List<Expression<?>> groups = new ArrayList<>(bucketParts.values());
+        groups.add(executor.get(Participant_.id));
+        groups.add(executor.get(Participant_.fullName));
+        groups.add(root.get(ExecutionFactDurationHistogram_.bin));
+        query.multiselect(selections)
+                .where(specification.toPredicate(root, query, builder))
+                .groupBy(groups);
+        return entityManager.createQuery(query).getResultStream()
+                .map(tuple -> new DurationHistogramBinDto(
+                        tuple.get("executorId", UUID.class),
+                        tuple.get("executorFullName", String.class),
+                        bucketStart(tuple, bucket),
+                        tuple.get("bin", Integer.class),
+                        tuple.get("factCount", Long.class)
+                ))
+                .toList();
+    }
+
+    private LocalDateTime bucketStart(Tuple tuple, PercentileBucket bucket) {
+        if (bucket == PercentileBucket.HOUR) {
+            return tuple.get("hour", LocalDateTime.class);
+        }
+        return LocalDate.of(
+                tuple.get("year", Integer.class),
+                tuple.get("month", Integer.class),
+                tuple.get("day", Integer.class)
+        ).atStartOfDay();
+    }
+
+    @Override
+    @Transactional
+    public OptionalInt refresh(LocalDateTime refreshedAt, int changesBatchSize) {
+        Optional<ExecutionFactStatsRefresh> refresh =
+                refreshRepository.tryLock(ExecutionFactStatsRefresh.DURATION_HISTOGRAM);
+        if (refresh.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        int refreshed = 0;
+        if (refresh.get().getRefreshedAt() == null) {
+            entityManager.createNativeQuery("delete from execution_fact_duration_histogram").executeUpdate();
+            refreshed += entityManager.createNativeQuery(REFRESH_QUERY.formatted(
+                            "false", ExecutionFactDurationHistogram.BINS_PER_DOUBLING, "execution_facts"))
+                    .setParameter("refreshedAt", refreshedAt)
+                    .executeUpdate();
+            refreshed += entityManager.createNativeQuery(REFRESH_QUERY.formatted(
+                            "true", ExecutionFactDurationHistogram.BINS_PER_DOUBLING, "execution_facts_archive"))
+                    .setParameter("refreshedAt", refreshedAt)
+                    .executeUpdate();
+        } else {
+            List<Long> changeIds;
+            do {
+                changeIds = changeRepository.findIds(ExecutionFactStatsRefresh.DURATION_HISTOGRAM, changesBatchSize);
+                if (changeIds.isEmpty()) {
+                    break;
+                }
+                refreshed += refreshChangedDays(refreshedAt, changeIds);
+            } while (changeIds.size() == changesBatchSize);
+        }
+        refresh.get().setRefreshedAt(refreshedAt);
+        return OptionalInt.of(refreshed);
+    }
+
+    private int refreshChangedDays(LocalDateTime refreshedAt, List<Long> changeIds) {
+        entityManager.createNativeQuery(DELETE_CHANGED_DAYS_QUERY)
+                .setParameter("changeIds", changeIds)
+                .executeUpdate();
+        int refreshed = 0;
+        for (String archived : List.of("false", "true")) {
+            String table = archived.equals("true") ? "execution_facts_archive" : "execution_facts";
+            refreshed += entityManager.createNativeQuery(REFRESH_QUERY.formatted(
+                            archived, ExecutionFactDurationHistogram.BINS_PER_DOUBLING,
+                            CHANGED_DAYS_SOURCE.formatted(table)))
+                    .setParameter("refreshedAt", refreshedAt)
+                    .setParameter("changeIds", changeIds)
+                    .executeUpdate();
+        }
+        changeRepository.deleteAllByIdInBatch(changeIds);
+        return refreshed;
+    }
+
+}
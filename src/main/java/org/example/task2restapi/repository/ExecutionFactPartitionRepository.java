@@ -0,0 +1,189 @@
+package org.example.task2restapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Maintenance of monthly range partitions of execution_facts by finish_time.
+ * Table is partitioned only on PostgreSQL by liquibase, on other databases (e.g. H2 in tests)
+ * it stays plain and {@link #isPartitioned()} returns false.
+ * Facts without finish time are kept in execution_facts_unfinished, others in execution_facts_finished,
+ * which has partition per month named execution_facts_pYYYY_MM and no default partition, so partitions
+ * can be detached concurrently, but partition of month must exist before fact finished in it is written.
+ * Every monthly partition has unique constraint on id, as partitioned tables can not have it.
+ */
+@Repository
+public class ExecutionFactPartitionRepository {
+
+    private static final String PARTITION_PREFIX = "execution_facts_p";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ExecutionFactStatsChangeRepository statsChangeRepository;
+
+    public ExecutionFactPartitionRepository(DataSource dataSource,
+                                            ExecutionFactStatsChangeRepository statsChangeRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.statsChangeRepository = statsChangeRepository;
+    }
+
+    public boolean isPartitioned() {
+        String database = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return false;
+        }
+        Number partitioned = (Number) entityManager.createNativeQuery("""
+                        select count(*) from pg_partitioned_table pt
+                        join pg_class c on c.oid = pt.partrelid
+                        where c.relname = 'execution_facts'""")
+                .getSingleResult();
+        return partitioned.intValue() > 0;
+    }
+
+    /**
+     * @return months which have own partition attached, partitions not following naming convention are ignored
+     */
+    public List<YearMonth> findMonthlyPartitions() {
+        @SuppressWarnings("unchecked")
+        List<String> names = entityManager.createNativeQuery("""
+                        select c.relname from pg_inherits i
+                        join pg_class c on c.oid = i.inhrelid
+                        join pg_class p on p.oid = i.inhparent
+                        where p.relname = 'execution_facts_finished'""")
+                .getResultList();
+        return toMonths(names);
+    }
+
+    /**
+     * @return months which have partition detached from execution_facts but not archived yet
+     */
+    public List<YearMonth> findDetachedMonthlyPartitions() {
+        @SuppressWarnings("unchecked")
+        List<String> names = entityManager.createNativeQuery("""
+                        select relname from pg_class
+                        where relkind = 'r' and not relispartition and relname like 'execution\\_facts\\_p%'""")
+                .getResultList();
+        return toMonths(names);
+    }
+
+    /**
+     * Commits in its own transaction, so caller writing facts of given month does not hold lock of
+     * execution_facts_finished until it commits. Partition is created standalone and attached afterwards,
+     * attaching does not block reads and writes of execution_facts. Concurrent calls for the same month
+     * are serialized, only one of them creates partition.
+     * @return false if partition of given month already exists
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public boolean createMonthlyPartition(YearMonth month) {
+        String partition = partitionName(month);
+        entityManager.createNativeQuery("select true from pg_advisory_xact_lock(hashtext('execution_facts_finished'))")
+                .getSingleResult();
+        Number existing = (Number) entityManager.createNativeQuery("""
+                        select count(*) from pg_inherits i
+                        join pg_class c on c.oid = i.inhrelid
+                        where c.relname = :partition""")
+                .setParameter("partition", partition)
+                .getSingleResult();
+        if (existing.intValue() > 0) {
+            return false;
+        }
+        entityManager.createNativeQuery("create table %s (like execution_facts_finished including defaults)"
+                        .formatted(partition))
+                .executeUpdate();
+        entityManager.createNativeQuery("alter table %1$s add constraint %1$s_id_key unique (id)"
+                        .formatted(partition))
+                .executeUpdate();
+        entityManager.createNativeQuery("""
+                        alter table execution_facts_finished attach partition %s
+                        for values from ('%s') to ('%s')""".formatted(
+                        partition, month.atDay(1), month.plusMonths(1).atDay(1)))
+                .executeUpdate();
+        return true;
+    }
+
+    /**
+     * Detaches partition of given month concurrently, so reads and writes of execution_facts are not blocked.
+     * Detaching concurrently can not run inside transaction, so it is issued on connection in auto-commit mode.
+     * Detach interrupted by previous call is finalized instead.
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void detachMonthlyPartition(YearMonth month) {
+        String partition = partitionName(month);
+        List<Boolean> detachPending = jdbcTemplate.queryForList("""
+                        select i.inhdetachpending from pg_inherits i
+                        join pg_class c on c.oid = i.inhrelid
+                        where c.relname = ?""", Boolean.class, partition);
+        if (detachPending.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("alter table execution_facts_finished detach partition %s %s".formatted(
+                partition, detachPending.get(0) ? "finalize" : "concurrently"));
+    }
+
+    /**
+     * Copies all facts of detached partition of given month to execution_facts_archive and drops it, so retention
+     * does not leave dead rows and index entries behind as row by row deletion does.
+     * Partition is not part of execution_facts anymore, so only the partition itself is locked.
+     * Every day of the month is marked for recomputation of statistics.
+     * @return count of archived facts
+     */
+    @Transactional
+    public int archiveDetachedPartition(YearMonth month, LocalDateTime archivedAt) {
+        String partition = partitionName(month);
+        int archived = entityManager.createNativeQuery("""
+                        insert into execution_facts_archive
+                        (id, start_time, finish_time, executor_id, description, version, archived_at)
+                        select id, start_time, finish_time, executor_id, description, version, :archivedAt
+                        from %s""".formatted(partition))
+                .setParameter("archivedAt", archivedAt)
+                .executeUpdate();
+        entityManager.createNativeQuery("drop table %s".formatted(partition))
+                .executeUpdate();
+        statsChangeRepository.markDays(
+                IntStream.rangeClosed(1, month.lengthOfMonth()).mapToObj(month::atDay).toList());
+        return archived;
+    }
+
+    private static List<YearMonth> toMonths(List<String> partitionNames) {
+        return partitionNames.stream()
+                .map(ExecutionFactPartitionRepository::parseMonth)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth parseMonth(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+}
@@ -1,12 +1,25 @@
 package org.example.task2restapi.repository;
 
+import org.example.task2restapi.dto.ExecutionFactVersionDto;
 import org.example.task2restapi.entity.ExecutionFact;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ExecutionFactRepository extends JpaRepository<ExecutionFact, UUID>, JpaSpecificationExecutor<ExecutionFact> {
+public interface ExecutionFactRepository extends JpaRepository<ExecutionFact, UUID>, JpaSpecificationExecutor<ExecutionFact>,
+        ExecutionFactRepositoryCustom {
+
+    @Query("select f from ExecutionFact f join fetch f.executor where f.id = :id")
+    Optional<ExecutionFact> findWithExecutorById(@Param("id") UUID id);
+
+    @Query("select new org.example.task2restapi.dto.ExecutionFactVersionDto(f.version, e.version) " +
+           "from ExecutionFact f join f.executor e where f.id = :id")
+    Optional<ExecutionFactVersionDto> findVersionById(@Param("id") UUID id);
+
 }
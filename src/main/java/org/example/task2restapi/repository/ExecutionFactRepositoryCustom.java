@@ -0,0 +1,122 @@
+package org.example.task2restapi.repository;
+
+import jakarta.annotation.Nullable;
+import org.example.task2restapi.dto.ExecutionFactVersionDto;
+import org.example.task2restapi.dto.GetExecutionFactDto;
+import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.entity.AbstractExecutionFact;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.specification.ExecutionFactCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Queries for ExecutionFact that can not be expressed through derived or annotated repository methods.
+ * Facts are selected straight into GetExecutionFactDto together with executor columns in single statement,
+ * so no entities are attached to persistence context and executors are not loaded one by one.
+ * Results are ordered by finish time (facts without it go last) and id.
+ */
+public interface ExecutionFactRepositoryCustom {
+
+    /**
+     * Memory usage does not depend on amount of selected rows.
+     * Returned stream is backed by open database cursor, so it must be consumed inside transaction and closed.
+     * @param type ExecutionFact for hot facts only, AbstractExecutionFact to include archived ones
+     * @param specification filter
+     * @param fetchSize amount of rows fetched from database per round-trip
+     * @return facts by given specification
+     */
+    <T extends AbstractExecutionFact> Stream<GetExecutionFactDto> streamAll(Class<T> type,
+                                                                            Specification<T> specification,
+                                                                            int fetchSize);
+
+    /**
+     * Count query is issued only if total can not be derived from selected page.
+     * @param type ExecutionFact for hot facts only, AbstractExecutionFact to include archived ones
+     * @param specification filter
+     * @param pageable requested page
+     * @return page of facts by given specification
+     */
+    <T extends AbstractExecutionFact> Page<GetExecutionFactDto> findPage(Class<T> type,
+                                                                         Specification<T> specification,
+                                                                         Pageable pageable);
+
+    /**
+     * Does not issue count query.
+     * @param type ExecutionFact for hot facts only, AbstractExecutionFact to include archived ones
+     * @param specification filter
+     * @param limit max amount of returned facts
+     * @return first facts by given specification
+     */
+    <T extends AbstractExecutionFact> List<GetExecutionFactDto> findFirst(Class<T> type,
+                                                                          Specification<T> specification,
+                                                                          int limit);
+
+    /**
+     * @param type ExecutionFact for hot facts only, AbstractExecutionFact to include archived ones
+     * @param specification filter
+     * @return count of facts by given specification
+     */
+    <T extends AbstractExecutionFact> long count(Class<T> type, Specification<T> specification);
+
+    /**
+     * Positions are ordered by finish time (facts without it go last) and id, so whole selection can be walked
+     * chunk by chunk with finishedAfter and unfinishedAfter specifications even if selected facts are modified,
+     * every chunk is read as one index range.
+     * @param specification filter
+     * @param limit max amount of returned positions
+     * @return positions of first facts by given specification
+     */
+    List<ExecutionFactCursor> findCursors(Specification<ExecutionFact> specification, int limit);
+
+    /**
+     * Deletes first found facts by given specification in single transaction. Deleted facts do not match
+     * specification anymore, so whole selection is deleted by repeating call until it returns less than limit,
+     * without tracking position. Days of deleted facts are marked for recomputation of statistics.
+     * @param specification filter
+     * @param limit max amount of deleted facts
+     * @return count of deleted facts
+     */
+    int deleteFirst(Specification<ExecutionFact> specification, int limit);
+
+    /**
+     * Updates given facts with single statement bypassing persistence context, version of every fact is incremented.
+     * Days of facts are marked for recomputation of statistics if their executor is changed.
+     * @param ids ids of facts to be updated
+     * @param executorId new executor id, not changed if null
+     * @param description new description, not changed if null
+     * @return count of updated facts
+     */
+    int updateByIds(Collection<UUID> ids, @Nullable UUID executorId, @Nullable String description);
+
+    /**
+     * Applies non-null fields of given dto to fact with single statement bypassing persistence context,
+     * version of fact is incremented. Fact is not updated if its resulting start time would be after
+     * its finish time or if its current versions differ from expected ones. Previous and new finish days of fact
+     * are marked for recomputation of statistics unless only description is changed.
+     * @param id id of fact to be updated
+     * @param factDto new data of fact, executor must exist
+     * @param expectedVersion versions of fact and its executor, not checked if null
+     * @return count of updated facts, 0 or 1
+     */
+    int updateIfCurrent(UUID id, UpdateExecutionFactDto factDto, @Nullable ExecutionFactVersionDto expectedVersion);
+
+    /**
+     * Moves oldest facts finished before given time to execution_facts_archive in single transaction.
+     * Moved rows are locked and rows locked by other transactions are skipped, so concurrent archivers
+     * and updates of the same facts do not conflict. Days of moved facts are marked for recomputation of statistics.
+     * @param finishedBefore facts finished strictly before it are moved
+     * @param archivedAt time of archiving stored with every moved fact
+     * @param limit max amount of moved facts
+     * @return count of moved facts, less than limit if there are no more facts to move
+     */
+    int archiveFinishedBefore(LocalDateTime finishedBefore, LocalDateTime archivedAt, int limit);
+
+}
@@ -0,0 +1,267 @@
+package org.example.task2restapi.repository;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.transaction.Transactional;
+import org.example.task2restapi.dto.ExecutionFactVersionDto;
+import org.example.task2restapi.dto.GetExecutionFactDto;
+import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.entity.AbstractExecutionFact;
+import org.example.task2restapi.entity.AbstractExecutionFact_;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.ExecutionFact_;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.entity.Participant_;
+import org.example.task2restapi.specification.ExecutionFactCursor;
+import org.hibernate.LockOptions;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class ExecutionFactRepositoryCustomImpl implements ExecutionFactRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ExecutionFactStatsChangeRepository statsChangeRepository;
+
+    public ExecutionFactRepositoryCustomImpl(ExecutionFactStatsChangeRepository statsChangeRepository) {
+        this.statsChangeRepository = statsChangeRepository;
+    }
+
+    @Override
+    public <T extends AbstractExecutionFact> Stream<GetExecutionFactDto> streamAll(Class<T> type,
+                                                                                   Specification<T> specification,
+                                                                                   int fetchSize) {
+        return createOrderedQuery(type, specification)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public <T extends AbstractExecutionFact> Page<GetExecutionFactDto> findPage(Class<T> type,
+                                                                                Specification<T> specification,
+                                                                                Pageable pageable) {
+        List<GetExecutionFactDto> content = createOrderedQuery(type, specification)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(type, specification));
+    }
+
+    @Override
+    public <T extends AbstractExecutionFact> List<GetExecutionFactDto> findFirst(Class<T> type,
+                                                                                 Specification<T> specification,
+                                                                                 int limit) {
+        return createOrderedQuery(type, specification)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public <T extends AbstractExecutionFact> long count(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(builder.count(root));
+        query.where(specification.toPredicate(root, query, builder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<ExecutionFactCursor> findCursors(Specification<ExecutionFact> specification, int limit) {
+        HibernateCriteriaBuilder builder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<ExecutionFactCursor> query = builder.createQuery(ExecutionFactCursor.class);
+        Root<ExecutionFact> root = query.from(ExecutionFact.class);
+        query.select(builder.construct(
+                ExecutionFactCursor.class,
+                root.get(ExecutionFact_.finishTime),
+                root.get(ExecutionFact_.id)
+        ));
+        query.where(specification.toPredicate(root, query, builder));
+        query.orderBy(
+                builder.asc(root.get(ExecutionFact_.finishTime), false),
+                builder.asc(root.get(ExecutionFact_.id))
+        );
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int deleteFirst(Specification<ExecutionFact> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        Root<ExecutionFact> root = query.from(ExecutionFact.class);
+        query.select(root.get(ExecutionFact_.id))
+                .where(specification.toPredicate(root, query, builder));
+        List<UUID> ids = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        statsChangeRepository.markFacts(ids);
+        CriteriaDelete<ExecutionFact> delete = builder.createCriteriaDelete(ExecutionFact.class);
+        delete.where(delete.from(ExecutionFact.class).get(ExecutionFact_.id).in(ids));
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int updateByIds(Collection<UUID> ids, @Nullable UUID executorId, @Nullable String description) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ExecutionFact> update = builder.createCriteriaUpdate(ExecutionFact.class);
+        Root<ExecutionFact> root = update.from(ExecutionFact.class);
+        if (executorId != null) {
+            statsChangeRepository.markFacts(ids);
+            update.set(root.get(ExecutionFact_.executor), entityManager.getReference(Participant.class, executorId));
+        }
+        if (description != null) {
+            update.set(root.get(ExecutionFact_.description), description);
+        }
+        update.set(
+                root.get(ExecutionFact_.version),
+                builder.sum(builder.coalesce(root.get(ExecutionFact_.version), 0L), 1L)
+        );
+        update.where(root.get(ExecutionFact_.id).in(ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int updateIfCurrent(UUID id, UpdateExecutionFactDto factDto, @Nullable ExecutionFactVersionDto expectedVersion) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ExecutionFact> update = builder.createCriteriaUpdate(ExecutionFact.class);
+        Root<ExecutionFact> root = update.from(ExecutionFact.class);
+        if (factDto.getExecutorId() != null) {
+            update.set(root.get(ExecutionFact_.executor), entityManager.getReference(Participant.class, factDto.getExecutorId()));
+        }
+        if (factDto.getDescription() != null) {
+            update.set(root.get(ExecutionFact_.description), factDto.getDescription());
+        }
+        if (factDto.getStartTime() != null) {
+            update.set(root.get(ExecutionFact_.startTime), factDto.getStartTime());
+        }
+        if (factDto.getFinishTime() != null) {
+            update.set(root.get(ExecutionFact_.finishTime), factDto.getFinishTime());
+        }
+        update.set(
+                root.get(ExecutionFact_.version),
+                builder.sum(builder.coalesce(root.get(ExecutionFact_.version), 0L), 1L)
+        );
+        Expression<LocalDateTime> startTime = factDto.getStartTime() == null ?
+                root.get(ExecutionFact_.startTime) : builder.literal(factDto.getStartTime());
+        Expression<LocalDateTime> finishTime = factDto.getFinishTime() == null ?
+                root.get(ExecutionFact_.finishTime) : builder.literal(factDto.getFinishTime());
+        List<Predicate> where = new ArrayList<>();
+        where.add(builder.equal(root.get(ExecutionFact_.id), id));
+        where.add(builder.or(
+                builder.isNull(startTime),
+                builder.isNull(finishTime),
+                builder.lessThanOrEqualTo(startTime, finishTime)
+        ));
+        if (expectedVersion != null) {
+            where.add(builder.equal(root.get(ExecutionFact_.version), expectedVersion.getFactVersion()));
+            Subquery<Integer> executor = update.subquery(Integer.class);
+            Root<Participant> participant = executor.from(Participant.class);
+            executor.select(builder.literal(1)).where(
+                    builder.equal(participant.get(Participant_.id), root.get(ExecutionFact_.executor).get(Participant_.id)),
+                    builder.equal(participant.get(Participant_.version), expectedVersion.getExecutorVersion())
+            );
+            where.add(builder.exists(executor));
+        }
+        update.where(where.toArray(Predicate[]::new));
+        boolean statsChanged = factDto.getExecutorId() != null
+                || factDto.getStartTime() != null || factDto.getFinishTime() != null;
+        if (statsChanged) {
+            statsChangeRepository.markFacts(Collections.singletonList(id));
+        }
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated > 0 && factDto.getFinishTime() != null) {
+            statsChangeRepository.markDays(Collections.singletonList(factDto.getFinishTime().toLocalDate()));
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int archiveFinishedBefore(LocalDateTime finishedBefore, LocalDateTime archivedAt, int limit) {
+        List<UUID> ids = entityManager.createQuery("""
+                        select f.id from ExecutionFact f
+                        where f.finishTime < :finishedBefore
+                        order by f.finishTime, f.id""", UUID.class)
+                .setParameter("finishedBefore", finishedBefore)
+                .setMaxResults(limit)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableSettings.JAKARTA_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        statsChangeRepository.markFacts(ids);
+        entityManager.createQuery("""
+                        insert into ArchivedExecutionFact
+                        (id, startTime, finishTime, executor, description, version, archivedAt)
+                        select f.id, f.startTime, f.finishTime, f.executor, f.description, f.version, :archivedAt
+                        from ExecutionFact f
+                        where f.id in :ids""")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return entityManager.createQuery("delete from ExecutionFact f where f.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    private <T extends AbstractExecutionFact> TypedQuery<GetExecutionFactDto> createOrderedQuery(
+            Class<T> type, Specification<T> specification) {
+        HibernateCriteriaBuilder builder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<GetExecutionFactDto> query = builder.createQuery(GetExecutionFactDto.class);
+        Root<T> root = query.from(type);
+        Join<T, Participant> executor = root.join(AbstractExecutionFact_.executor);
+        query.select(builder.construct(
+                GetExecutionFactDto.class,
+                root.get(AbstractExecutionFact_.id),
+                root.get(AbstractExecutionFact_.startTime),
+                root.get(AbstractExecutionFact_.finishTime),
+                executor.get(Participant_.fullName),
+                executor.get(Participant_.id),
+                root.get(AbstractExecutionFact_.description)
+        ));
+        query.where(specification.toPredicate(root, query, builder));
+        query.orderBy(
+                builder.asc(root.get(AbstractExecutionFact_.finishTime), false),
+                builder.asc(root.get(AbstractExecutionFact_.id))
+        );
+        return entityManager.createQuery(query);
+    }
+
+}
@@ -0,0 +1,10 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.ExecutionFactStatsChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExecutionFactStatsChangeRepository extends JpaRepository<ExecutionFactStatsChange, Long>,
+        ExecutionFactStatsChangeRepositoryCustom {
+}
@@ -0,0 +1,35 @@
+package org.example.task2restapi.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Marks are written in transaction of the change they announce, so refresh never sees a mark
+ * before the change itself.
+ */
+public interface ExecutionFactStatsChangeRepositoryCustom {
+
+    /**
+     * Marks given days as changed for every statistics table with single statement.
+     * @param finishDays finish days of written facts
+     */
+    void markDays(Collection<LocalDate> finishDays);
+
+    /**
+     * Marks finish days of given facts as changed for every statistics table with single statement,
+     * so it must be called before facts are moved, deleted or their finish time is changed.
+     * Facts without finish time are not counted by statistics and are not marked.
+     * @param factIds ids of facts in execution_facts
+     */
+    void markFacts(Collection<UUID> factIds);
+
+    /**
+     * @param stats name of statistics table
+     * @param limit max amount of returned ids
+     * @return ids of oldest marks of given statistics table
+     */
+    List<Long> findIds(String stats, int limit);
+
+}
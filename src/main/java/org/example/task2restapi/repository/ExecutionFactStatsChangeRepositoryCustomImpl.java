@@ -0,0 +1,69 @@
+package org.example.task2restapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ExecutionFactStatsChangeRepositoryCustomImpl implements ExecutionFactStatsChangeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void markDays(Collection<LocalDate> finishDays) {
+        List<LocalDate> days = finishDays.stream().distinct().toList();
+        if (days.isEmpty()) {
+            return;
+        }
+        String values = IntStream.range(0, days.size())
+                .mapToObj(day -> "(cast(:day%d as date))".formatted(day))
+                .collect(Collectors.joining(", "));
+        Query insert = entityManager.createNativeQuery("""
+                insert into execution_fact_stats_changes (stats, finish_day)
+                select stats, finish_day
+                from execution_fact_stats_refresh
+                cross join (values %s) changed_days (finish_day)""".formatted(values));
+        for (int day = 0; day < days.size(); day++) {
+            insert.setParameter("day" + day, days.get(day));
+        }
+        insert.executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void markFacts(Collection<UUID> factIds) {
+        if (factIds.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery("""
+                        insert into execution_fact_stats_changes (stats, finish_day)
+                        select stats, finish_day
+                        from execution_fact_stats_refresh
+                        cross join (
+                            select distinct cast(finish_time as date) as finish_day
+                            from execution_facts
+                            where id in (:factIds) and finish_time is not null
+                        ) changed_days""")
+                .setParameter("factIds", factIds)
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findIds(String stats, int limit) {
+        return entityManager.createQuery(
+                        "select c.id from ExecutionFactStatsChange c where c.stats = :stats order by c.id", Long.class)
+                .setParameter("stats", stats)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+}
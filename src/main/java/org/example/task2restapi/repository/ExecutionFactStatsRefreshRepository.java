@@ -0,0 +1,10 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExecutionFactStatsRefreshRepository extends JpaRepository<ExecutionFactStatsRefresh, String>,
+        ExecutionFactStatsRefreshRepositoryCustom {
+}
@@ -0,0 +1,17 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
+
+import java.util.Optional;
+
+public interface ExecutionFactStatsRefreshRepositoryCustom {
+
+    /**
+     * Locks refresh state of given statistics table until end of current transaction,
+     * row locked by other transaction is skipped instead of waiting for it.
+     * @param stats name of statistics table
+     * @return empty if statistics are being refreshed by other transaction
+     */
+    Optional<ExecutionFactStatsRefresh> tryLock(String stats);
+
+}
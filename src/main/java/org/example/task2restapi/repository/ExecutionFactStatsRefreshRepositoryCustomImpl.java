@@ -0,0 +1,29 @@
+package org.example.task2restapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
+
+import java.util.List;
+import java.util.Optional;
+
+public class ExecutionFactStatsRefreshRepositoryCustomImpl implements ExecutionFactStatsRefreshRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Written in SQL, because Hibernate renders skip locked only for dialects it knows to support it,
+     * while both H2 and PostgreSQL do.
+     */
+    @Override
+    public Optional<ExecutionFactStatsRefresh> tryLock(String stats) {
+        List<?> locked = entityManager.createNativeQuery(
+                        "select * from execution_fact_stats_refresh where stats = :stats for update skip locked",
+                        ExecutionFactStatsRefresh.class)
+                .setParameter("stats", stats)
+                .getResultList();
+        return locked.stream().map(ExecutionFactStatsRefresh.class::cast).findFirst();
+    }
+
+}
@@ -1,13 +1,21 @@
 package org.example.task2restapi.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.task2restapi.dto.GetParticipantDto;
 import org.example.task2restapi.entity.Participant;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ParticipantRepository extends JpaRepository<Participant, UUID> {
@@ -15,4 +23,40 @@ public interface ParticipantRepository extends JpaRepository<Participant, UUID>
     @Query("select p from Participant p where p.email = :email")
     Optional<Participant> findByEmail(@Param("email") String email);
 
+    /**
+     * @return those of given emails which belong to registered participants
+     */
+    @Query("select p.email from Participant p where p.email in :emails")
+    List<String> findTakenEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Only page size of given pageable is used, count query is not executed.
+     */
+    @Query("""
+            select new org.example.task2restapi.dto.GetParticipantDto(p.id, p.fullName, p.email)
+            from Participant p
+            order by p.id""")
+    List<GetParticipantDto> findFirstPage(Pageable pageable);
+
+    /**
+     * Only page size of given pageable is used, count query is not executed.
+     * @param after id of last participant of previous page
+     */
+    @Query("""
+            select new org.example.task2restapi.dto.GetParticipantDto(p.id, p.fullName, p.email)
+            from Participant p
+            where p.id > :after
+            order by p.id""")
+    List<GetParticipantDto> findPageAfter(@Param("after") UUID after, Pageable pageable);
+
+    /**
+     * Returned stream must be closed and consumed inside transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new org.example.task2restapi.dto.GetParticipantDto(p.id, p.fullName, p.email)
+            from Participant p
+            order by p.id""")
+    Stream<GetParticipantDto> streamAll();
+
 }
@@ -0,0 +1,12 @@
+package org.example.task2restapi.service;
+
+/**
+ * Thrown when archived execution fact is about to be changed, archived facts are read only.
+ */
+public class ArchivedExecutionFactException extends RuntimeException {
+
+    public ArchivedExecutionFactException(String message) {
+        super(message);
+    }
+
+}
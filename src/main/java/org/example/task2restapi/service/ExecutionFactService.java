@@ -1,19 +1,31 @@
 package org.example.task2restapi.service;
 
+import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import org.example.task2restapi.dto.BulkUpdateExecutionFactsDto;
+import org.example.task2restapi.dto.ExecutionFactBulkResultDto;
 import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.ExecutionFactUploadProgressDto;
 import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
 import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
+import org.example.task2restapi.dto.GetExecutionFactDurationPercentilesDto;
+import org.example.task2restapi.dto.GetExecutionFactStatsDto;
 import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.dto.PercentileBucket;
 import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.dto.StatsBucket;
 import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.dto.VersionedDto;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Provides api for ExecutionFact manipulation.
@@ -29,6 +41,7 @@ public interface ExecutionFactService {
     UUID recordExecutionFact(@NotNull @Valid RecordExecutionFactDto factDto);
 
     /**
+     * Archived fact is returned if fact is not in execution_facts anymore.
      * @param id id of needed fact
      * @return detailed information about fact
      * @throws IllegalArgumentException fact by given id was not found
@@ -36,21 +49,59 @@ public interface ExecutionFactService {
     GetDetailedExecutionFactDto getById(@NotNull UUID id);
 
     /**
+     * Served from cache of detailed facts if cached version is current. Archived fact is read from
+     * execution_facts_archive only if fact is not in execution_facts anymore and is not cached.
+     * @param id id of needed fact
+     * @return detailed information about fact and version that changes whenever fact or its executor changes
+     * @throws IllegalArgumentException fact by given id was not found
+     */
+    VersionedDto<GetDetailedExecutionFactDto> getVersionedById(@NotNull UUID id);
+
+    /**
+     * Fact is updated with single statement, which is conditional if expected versions are given.
      * @param id id of fact to be updated
      * @param factDto data to update fact with, all null fields are ignored
-     * @throws IllegalArgumentException given invalid data
+     * @param expectedVersions versions returned by {@link #getVersionedById}, fact is updated if it has any of them,
+     *                         not checked if null
+     * @throws IllegalArgumentException given invalid data or fact by given id was not found
      * @throws jakarta.validation.ConstraintViolationException given invalid data
+     * @throws StaleVersionException if fact or its executor was changed since every expected version
+     * @throws ArchivedExecutionFactException fact by given id is archived
      */
-    void updateExecutionFact(@NotNull UUID id, @NotNull @Valid UpdateExecutionFactDto factDto);
+    void updateExecutionFact(@NotNull UUID id, @NotNull @Valid UpdateExecutionFactDto factDto,
+                             @Nullable Collection<String> expectedVersions);
 
     /**
      * Ignores non-existing ids.
      * @param id id of fact to be deleted
+     * @throws ArchivedExecutionFactException fact by given id is archived
      */
     void deleteById(@NotNull UUID id);
 
     /**
-     *
+     * Facts are deleted by chunks of ids in separate transactions, so big selections do not hold long locks,
+     * but failure in the middle leaves already deleted chunks deleted. Pagination parameters are ignored.
+     * @param factFilterOptionsDto filter, at least one criterion must be given, archived facts can not be included
+     * @return count of deleted facts
+     * @throws IllegalArgumentException given invalid or empty filter
+     * @throws jakarta.validation.ConstraintViolationException given invalid filter
+     */
+    ExecutionFactBulkResultDto deleteAll(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto);
+
+    /**
+     * Facts are updated by chunks of ids in separate transactions, same as in {@link #deleteAll}.
+     * @param bulkUpdateDto filter and new values, at least one value must be given
+     * @return count of updated facts
+     * @throws IllegalArgumentException given invalid data, empty filter or non-existing executor
+     * @throws jakarta.validation.ConstraintViolationException given invalid data
+     */
+    ExecutionFactBulkResultDto updateAll(@NotNull @Valid BulkUpdateExecutionFactsDto bulkUpdateDto);
+
+    /**
+     * In OFFSET pagination mode total pages are always counted.
+     * In KEYSET pagination mode facts are ordered by finish time and id, next continuation token is returned
+     * if there are more facts and total pages are counted only if includeTotalPages is true.
+     * Archived facts are included only if includeArchived is true.
      * @param factFilterOptionsDto filter parameters
      * @return facts by filter
      * @throws IllegalArgumentException given invalid filter
@@ -59,17 +110,62 @@ public interface ExecutionFactService {
     GetFilteredExecutionFactsDto findAll(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto);
 
     /**
+     * Statistics are read from daily summary rows refreshed in background, so cost depends on amount of buckets
+     * and executors, not facts. Only finished facts are counted, finish time range is applied with day precision,
+     * pagination parameters are ignored.
+     * @param factFilterOptionsDto filter parameters, description is not supported
+     * @param bucket period to group by
+     * @return statistics by executor and bucket
+     * @throws IllegalArgumentException given invalid filter
+     * @throws jakarta.validation.ConstraintViolationException given invalid filter
+     */
+    GetExecutionFactStatsDto getStats(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                                      @NotNull StatsBucket bucket);
+
+    /**
+     * Percentiles are estimated from log-scale hourly histograms of durations refreshed in background together with
+     * statistics, estimation error is within width of histogram bin (about 9%). Only finished facts are counted,
+     * finish time range is applied with hour precision, pagination parameters are ignored.
+     * @param factFilterOptionsDto filter parameters, description is not supported
+     * @param bucket period to group by
+     * @param percentiles percentiles to estimate, each in range (0, 1]
+     * @return duration percentiles in milliseconds by executor and bucket
+     * @throws IllegalArgumentException given invalid filter or percentiles
+     * @throws jakarta.validation.ConstraintViolationException given invalid filter
+     */
+    GetExecutionFactDurationPercentilesDto getDurationPercentiles(
+            @NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto,
+            @NotNull PercentileBucket bucket,
+            @NotNull List<Double> percentiles);
+
+    /**
+     * Writes csv containing all facts by filter row by row, pagination parameters are validated but ignored.
+     * Output is opened only after filter is validated, it is flushed but not closed.
+     * Archived facts are included only if includeArchived is true.
      * @param factFilterOptionsDto filter parameters
-     * @return csv file containing all facts by filter
+     * @param out supplies stream to write csv to
      * @throws IllegalArgumentException given invalid filter
      * @throws jakarta.validation.ConstraintViolationException given invalid filter
+     * @throws UncheckedIOException failed to write to given stream
      */
-    ByteArrayInputStream generateCsvReport(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto);
+    void generateCsvReport(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                           @NotNull Supplier<OutputStream> out);
 
     /**
+     * File is parsed incrementally and facts are imported in batches, executors of each batch are resolved
+     * with one query and valid facts are inserted with JDBC batching, so memory usage does not depend on file size.
+     * Only first configured amount of declined facts is returned, counts always cover whole file.
+     * Every batch is committed in its own transaction, so batches imported before a failure stay imported.
      * @param multipart file from which to upload
      * @return result of upload
-     * @throws UncheckedIOException given file contains invalid json
+     * @throws org.example.task2restapi.service.UploadFailedException given file is not json array,
+     * carries counts of facts imported before
+     * @throws UncheckedIOException given file can not be read
      */
     ExecutionFactUploadResultDto uploadFromFile(@NotNull MultipartFile multipart);
+
+    /**
+     * @return progress of uploads that are currently running, oldest first
+     */
+    List<ExecutionFactUploadProgressDto> getUploadsInProgress();
 }
@@ -0,0 +1,35 @@
+package org.example.task2restapi.service;
+
+import jakarta.validation.constraints.NotNull;
+import org.example.task2restapi.dto.ExecutionFactUploadJobDto;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Provides api for asynchronous ExecutionFact uploads.
+ */
+@Validated
+public interface ExecutionFactUploadJobService {
+
+    /**
+     * Saves given file to spool directory and queues its import, every batch of facts is committed separately.
+     * @param multipart file from which to upload
+     * @return id of upload job
+     * @throws UncheckedIOException given file could not be saved
+     * @throws TaskRejectedException upload queue is full
+     */
+    UUID submit(@NotNull MultipartFile multipart);
+
+    /**
+     * Finished jobs are available only for configured retention.
+     * @param id id of upload job
+     * @return current state of upload job
+     * @throws IllegalArgumentException job with given id was not found
+     */
+    ExecutionFactUploadJobDto getById(@NotNull UUID id);
+
+}
@@ -1,14 +1,20 @@
 package org.example.task2restapi.service;
 
+import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.GetParticipantsPageDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.example.task2restapi.dto.ParticipantRegistrationResultDto;
 import org.example.task2restapi.dto.RegisterParticipantDto;
 import org.example.task2restapi.dto.UpdateParticipantDto;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Provides api for Participants manipulation.
@@ -16,9 +22,32 @@ import java.util.UUID;
 @Validated
 public interface ParticipantService {
     /**
-     * @return all participant present in db
+     * Participants are ordered by id.
+     * @param paginationMode only {@link PaginationMode#KEYSET} is supported
+     * @param continuationToken token of previous page, first page is returned if null
+     * @param pageSize size of page, 50 if null
+     * @return page of participants and token of next page, token is null if there is no next page
+     * @throws IllegalArgumentException given token is malformed, page size is out of bounds
+     * or pagination mode is not supported
      */
-    List<GetParticipantDto> findAll();
+    GetParticipantsPageDto findPage(@NotNull PaginationMode paginationMode, @Nullable String continuationToken,
+                                    @Nullable Integer pageSize);
+
+    /**
+     * Writes all participants ordered by id as single json array.
+     * Participants are written as they are read from database, output is buffered and flushed once at the end.
+     * @param out opened only when participants are about to be written, it is not closed
+     * @throws java.io.UncheckedIOException fail to write to given stream
+     */
+    void writeAll(@NotNull Supplier<OutputStream> out);
+
+    /**
+     * Writes all participants ordered by id as newline delimited json.
+     * Participants are written as they are read from database, output is buffered and flushed once at the end.
+     * @param out opened only when participants are about to be written, it is not closed
+     * @throws java.io.UncheckedIOException fail to write to given stream
+     */
+    void streamAll(@NotNull Supplier<OutputStream> out);
 
     /**
      * @param participantDto participant to be registered
@@ -28,6 +57,15 @@ public interface ParticipantService {
      */
     UUID register(@Valid @NotNull RegisterParticipantDto participantDto);
 
+    /**
+     * Registers all valid participants at once, invalid ones and ones with taken email are declined.
+     * Emails are checked by one query for whole list, so email repeated in given list is declined as taken.
+     * @param participantDtos participants to be registered
+     * @return count of registered participants and declined participants with info what is wrong with them
+     * @throws IllegalArgumentException given list exceeds configured size
+     */
+    ParticipantRegistrationResultDto registerAll(@NotNull List<RegisterParticipantDto> participantDtos);
+
     /**
      * @param id id of participant to be updated
      * @param participantDto data to update participant with
@@ -0,0 +1,12 @@
+package org.example.task2restapi.service;
+
+/**
+ * Thrown when version expected by client differs from current version of changed object.
+ */
+public class StaleVersionException extends RuntimeException {
+
+    public StaleVersionException(String message) {
+        super(message);
+    }
+
+}
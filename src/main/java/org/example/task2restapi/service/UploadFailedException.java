@@ -0,0 +1,19 @@
+package org.example.task2restapi.service;
+
+import lombok.Getter;
+import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+
+/**
+ * Thrown when upload is stopped by broken input, carries result of batches imported before.
+ */
+@Getter
+public class UploadFailedException extends RuntimeException {
+
+    private final ExecutionFactUploadResultDto partialResult;
+
+    public UploadFailedException(String message, ExecutionFactUploadResultDto partialResult) {
+        super(message);
+        this.partialResult = partialResult;
+    }
+
+}
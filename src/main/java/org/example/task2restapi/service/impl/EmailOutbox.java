@@ -0,0 +1,259 @@
+package org.example.task2restapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.ApiException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.example.profitsoft.kafka.messages.SimpleEmailDto;
+import org.example.task2restapi.entity.EmailOutboxMessage;
+import org.example.task2restapi.repository.EmailOutboxRepository;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox of email notifications.
+ * Messages are stored in the transaction of the change they announce and published later by relay,
+ * so they are never sent for rolled back changes and are delivered at least once.
+ */
+@Slf4j
+@Component
+@Transactional
+public class EmailOutbox {
+
+    private final EmailOutboxRepository outboxRepository;
+
+    private final KafkaOperations<String, SimpleEmailDto> kafkaOperations;
+
+    private final ObjectMapper objectMapper;
+
+    private final DateTimeService dateTimeService;
+
+    private final Integer relayBatchSize;
+
+    private final Duration relaySendTimeout;
+
+    private final Duration relayBackoffBase;
+
+    private final Duration relayBackoffMax;
+
+    private final Duration retentionMaxAge;
+
+    private final Integer retentionBatchSize;
+
+    public EmailOutbox(EmailOutboxRepository outboxRepository,
+                       KafkaOperations<String, SimpleEmailDto> kafkaOperations,
+                       ObjectMapper objectMapper,
+                       DateTimeService dateTimeService,
+                       @Qualifier("outboxRelayBatchSize")
+                       Integer relayBatchSize,
+                       @Qualifier("outboxRelaySendTimeout")
+                       Duration relaySendTimeout,
+                       @Qualifier("outboxRelayBackoffBase")
+                       Duration relayBackoffBase,
+                       @Qualifier("outboxRelayBackoffMax")
+                       Duration relayBackoffMax,
+                       @Qualifier("outboxRetentionMaxAge")
+                       Duration retentionMaxAge,
+                       @Qualifier("outboxRetentionBatchSize")
+                       Integer retentionBatchSize) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaOperations = kafkaOperations;
+        this.objectMapper = objectMapper;
+        this.dateTimeService = dateTimeService;
+        this.relayBatchSize = relayBatchSize;
+        this.relaySendTimeout = relaySendTimeout;
+        this.relayBackoffBase = relayBackoffBase;
+        this.relayBackoffMax = relayBackoffMax;
+        this.retentionMaxAge = retentionMaxAge;
+        this.retentionBatchSize = retentionBatchSize;
+    }
+
+    /**
+     * Joins transaction of caller, message is published only if it is committed.
+     */
+    public void enqueue(String topic, String key, SimpleEmailDto email) {
+        try {
+            EmailOutboxMessage saved = outboxRepository.save(EmailOutboxMessage.builder()
+                    .withTopic(topic)
+                    .withMessageKey(key)
+                    .withPayload(objectMapper.writeValueAsString(email))
+                    .withCreatedAt(dateTimeService.utcNow())
+                    .build());
+            log.debug("enqueued outbox message {}", saved);
+        } catch (JsonProcessingException e) {
+            UncheckedIOException ex = new UncheckedIOException("Fail to serialize email: " + e.getMessage(), e);
+            log.debug("enqueue()", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Claims batch of oldest due messages and sends them at once, so producer can group them.
+     * No transaction is held while broker acknowledges messages, acknowledged ones are marked as sent
+     * in separate short transaction. Messages which were not acknowledged within send timeout or failed with
+     * retriable error are retried with exponential backoff, messages which can not be serialized or are rejected
+     * by broker for good are parked at once.
+     * @return count of messages marked as sent
+     */
+    @Scheduled(
+            fixedDelayString = "${configuration.outbox.relay.interval}",
+            initialDelayString = "${configuration.outbox.relay.interval}"
+    )
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public int publishPending() {
+        LocalDateTime claimedAt = dateTimeService.utcNow();
+        // lease outlives send timeout, so claimed messages are not picked by other relays while they are being sent
+        List<EmailOutboxMessage> pending = outboxRepository.claimUnsent(
+                claimedAt, claimedAt.plus(relaySendTimeout.multipliedBy(2)), relayBatchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        log.debug("publishing {} outbox messages", pending.size());
+        List<UUID> poisoned = new ArrayList<>();
+        List<EmailOutboxMessage> sending = new ArrayList<>(pending.size());
+        List<CompletableFuture<?>> sends = new ArrayList<>(pending.size());
+        for (EmailOutboxMessage message : pending) {
+            Optional<Message<SimpleEmailDto>> kafkaMessage = toKafkaMessage(message);
+            if (kafkaMessage.isPresent()) {
+                sending.add(message);
+                sends.add(send(kafkaMessage.get()));
+            } else {
+                poisoned.add(message.getId());
+            }
+        }
+        long deadline = System.nanoTime() + relaySendTimeout.toNanos();
+        List<UUID> sent = new ArrayList<>(sending.size());
+        List<EmailOutboxMessage> failed = new ArrayList<>();
+        for (int i = 0; i < sending.size(); i++) {
+            EmailOutboxMessage message = sending.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sent.add(message.getId());
+            } catch (ExecutionException e) {
+                if (isRetriable(e.getCause())) {
+                    log.warn("fail to publish outbox message {}, it will be retried", message.getId(), e);
+                    failed.add(message);
+                } else {
+                    log.warn("broker rejected outbox message {}", message.getId(), e);
+                    poisoned.add(message.getId());
+                }
+            } catch (TimeoutException e) {
+                log.warn("outbox message {} was not acknowledged in time, it will be retried", message.getId(), e);
+                failed.add(message);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        LocalDateTime now = dateTimeService.utcNow();
+        if (!sent.isEmpty()) {
+            outboxRepository.markSent(sent, now);
+        }
+        // messages with equal count of attempts share next attempt time
+        failed.stream()
+                .collect(Collectors.groupingBy(EmailOutboxMessage::getAttempts,
+                        Collectors.mapping(EmailOutboxMessage::getId, Collectors.toList())))
+                .forEach((attempts, ids) -> outboxRepository.recordFailure(ids, now.plus(backoff(attempts))));
+        if (!poisoned.isEmpty()) {
+            outboxRepository.park(poisoned, now);
+            log.error("parked outbox messages {} which can not be published", poisoned);
+        }
+        log.debug("published {} of {} outbox messages", sent.size(), pending.size());
+        return sent.size();
+    }
+
+    /**
+     * Deletes messages sent longer than retention max age ago, batch by batch in separate transactions.
+     * Parked messages are kept for investigation.
+     * @return count of deleted messages
+     */
+    @Scheduled(
+            fixedDelayString = "${configuration.outbox.retention.interval}",
+            initialDelayString = "${configuration.outbox.retention.interval}"
+    )
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public int purgeSent() {
+        LocalDateTime sentBefore = dateTimeService.utcNow().minus(retentionMaxAge);
+        int deleted = 0;
+        int deletedInBatch;
+        do {
+            deletedInBatch = outboxRepository.deleteSentBefore(sentBefore, retentionBatchSize);
+            deleted += deletedInBatch;
+        } while (deletedInBatch == retentionBatchSize);
+        log.debug("purged {} sent outbox messages", deleted);
+        return deleted;
+    }
+
+    /**
+     * @param attempts count of failed attempts before the current one
+     * @return backoff base doubled for every previous attempt, but not longer than backoff max
+     */
+    private Duration backoff(int attempts) {
+        Duration backoff = relayBackoffBase;
+        for (int attempt = 0; attempt < attempts && backoff.compareTo(relayBackoffMax) < 0; attempt++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(relayBackoffMax) < 0 ? backoff : relayBackoffMax;
+    }
+
+    /**
+     * Only errors which kafka itself considers final for given record are not retried: record can not be serialized
+     * or broker rejected it for good (e.g. record is too large). Timeouts, unavailable brokers and unknown errors
+     * are retried.
+     */
+    private static boolean isRetriable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+            if (cause instanceof SerializationException || cause instanceof ApiException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Optional<Message<SimpleEmailDto>> toKafkaMessage(EmailOutboxMessage outboxMessage) {
+        try {
+            return Optional.of(MessageBuilder
+                    .withPayload(objectMapper.readValue(outboxMessage.getPayload(), SimpleEmailDto.class))
+                    .setHeader(KafkaHeaders.TOPIC, outboxMessage.getTopic())
+                    .setHeader(KafkaHeaders.KEY, outboxMessage.getMessageKey())
+                    .build());
+        } catch (JsonProcessingException e) {
+            log.warn("fail to deserialize outbox message {}", outboxMessage.getId(), e);
+            return Optional.empty();
+        }
+    }
+
+    private CompletableFuture<?> send(Message<SimpleEmailDto> message) {
+        try {
+            return kafkaOperations.send(message);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+}
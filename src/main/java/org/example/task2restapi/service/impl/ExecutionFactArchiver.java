@@ -0,0 +1,126 @@
+package org.example.task2restapi.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.repository.ExecutionFactPartitionRepository;
+import org.example.task2restapi.repository.ExecutionFactRepository;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Retention of execution facts: facts finished longer than configured max age ago are moved
+ * from execution_facts to execution_facts_archive, so hot table and its indexes do not grow without bound.
+ * If table is partitioned, whole monthly partitions that expired are detached concurrently, archived and dropped
+ * first, remaining expired facts are moved in small batches, each in its own transaction.
+ */
+@Slf4j
+@Component
+public class ExecutionFactArchiver {
+
+    private final ExecutionFactRepository factRepository;
+
+    private final ExecutionFactPartitionRepository partitionRepository;
+
+    private final ExecutionFactPartitionMaintainer partitionMaintainer;
+
+    private final ExecutionFactListCache listCache;
+
+    private final DateTimeService dateTimeService;
+
+    private final Duration maxAge;
+
+    private final Integer batchSize;
+
+    private final Counter archivedRows;
+
+    private final Timer archiveDuration;
+
+    public ExecutionFactArchiver(ExecutionFactRepository factRepository,
+                                 ExecutionFactPartitionRepository partitionRepository,
+                                 ExecutionFactPartitionMaintainer partitionMaintainer,
+                                 ExecutionFactListCache listCache,
+                                 DateTimeService dateTimeService,
+                                 @Qualifier("executionFactsRetentionMaxAge")
+                                 Duration maxAge,
+                                 @Qualifier("executionFactsRetentionBatchSize")
+                                 Integer batchSize,
+                                 MeterRegistry meterRegistry) {
+        this.factRepository = factRepository;
+        this.partitionRepository = partitionRepository;
+        this.partitionMaintainer = partitionMaintainer;
+        this.listCache = listCache;
+        this.dateTimeService = dateTimeService;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.archivedRows = Counter.builder("execution_facts.archive.rows")
+                .description("Execution facts moved to archive by retention")
+                .register(meterRegistry);
+        this.archiveDuration = Timer.builder("execution_facts.archive.duration")
+                .description("Time spent by retention runs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Moves batches until there are no expired facts left.
+     * @return count of moved facts
+     */
+    @Scheduled(
+            fixedDelayString = "${configuration.retention.execution-fact.interval}",
+            initialDelayString = "${configuration.retention.execution-fact.interval}"
+    )
+    public long archiveExpired() {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime now = dateTimeService.utcNow();
+        LocalDateTime finishedBefore = now.minus(maxAge);
+        log.debug("archiving execution facts finished before {}", finishedBefore);
+        long archived = archivePartitions(finishedBefore, now);
+        int moved;
+        do {
+            moved = factRepository.archiveFinishedBefore(finishedBefore, now, batchSize);
+            archived += moved;
+            archivedRows.increment(moved);
+            listCache.factsChanged();
+            log.debug("archived batch of {} execution facts", moved);
+        } while (moved == batchSize);
+        sample.stop(archiveDuration);
+        log.debug("archived {} execution facts", archived);
+        return archived;
+    }
+
+    /**
+     * Partitions are detached before they are copied, so copying does not lock execution_facts.
+     * Partitions left detached by interrupted run are archived too.
+     */
+    private long archivePartitions(LocalDateTime finishedBefore, LocalDateTime now) {
+        if (!partitionRepository.isPartitioned()) {
+            return 0;
+        }
+        for (YearMonth month : partitionRepository.findMonthlyPartitions()) {
+            if (month.plusMonths(1).atDay(1).atStartOfDay().isAfter(finishedBefore)) {
+                break;
+            }
+            partitionRepository.detachMonthlyPartition(month);
+            partitionMaintainer.forget(month);
+            listCache.factsChanged();
+            log.debug("detached execution facts partition for {}", month);
+        }
+        long archived = 0;
+        for (YearMonth month : partitionRepository.findDetachedMonthlyPartitions()) {
+            int moved = partitionRepository.archiveDetachedPartition(month, now);
+            archived += moved;
+            archivedRows.increment(moved);
+            listCache.factsChanged();
+            log.info("archived execution facts partition for {} with {} facts", month, moved);
+        }
+        return archived;
+    }
+
+}
@@ -0,0 +1,138 @@
+package org.example.task2restapi.service.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.controller.ExceptionResponse;
+import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.dto.RecordFactToItsValidationExceptions;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.mapper.ExecutionFactMapper;
+import org.example.task2restapi.repository.ExecutionFactRepository;
+import org.example.task2restapi.repository.ExecutionFactStatsChangeRepository;
+import org.example.task2restapi.repository.ParticipantRepository;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports execution facts batch by batch. Executors of whole batch are resolved with one query,
+ * facts are validated in memory and valid ones are inserted with JDBC batching
+ * (see hibernate.jdbc.batch_size), so batch costs constant amount of round-trips.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Transactional
+public class ExecutionFactBatchImporter {
+
+    private final ExecutionFactRepository factRepository;
+
+    private final ParticipantRepository participantRepository;
+
+    private final ParticipantCache participantCache;
+
+    private final ExecutionFactListCache listCache;
+
+    private final ExecutionFactMapper executionFactMapper;
+
+    private final DateTimeService dateTimeService;
+
+    private final Validator validator;
+
+    private final ExecutionFactPartitionMaintainer partitionMaintainer;
+
+    private final ExecutionFactStatsChangeRepository statsChangeRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Persistence context is cleared after batch is written, so memory usage does not grow from batch to batch.
+     * @param factDtos facts to be imported
+     * @return result of import with errors for every declined fact
+     */
+    public ExecutionFactUploadResultDto importBatch(List<RecordExecutionFactDto> factDtos) {
+        log.debug("importing batch of {} execution facts", factDtos.size());
+        Map<UUID, Participant> executors = resolveExecutors(factDtos);
+        List<ExecutionFact> validFacts = new ArrayList<>(factDtos.size());
+        List<RecordFactToItsValidationExceptions> invalidFacts = new LinkedList<>();
+        for (RecordExecutionFactDto factDto : factDtos) {
+            Optional<ExceptionResponse> errors = validate(factDto, executors);
+            if (errors.isPresent()) {
+                invalidFacts.add(new RecordFactToItsValidationExceptions(factDto, errors.get()));
+                log.debug("failed to load {}, {}", factDto, errors.get());
+            } else {
+                validFacts.add(executionFactMapper.toEntity(factDto, executors.get(factDto.getExecutorId())));
+            }
+        }
+        partitionMaintainer.ensurePartitionsFor(validFacts.stream().map(ExecutionFact::getFinishTime).toList());
+        factRepository.saveAll(validFacts);
+        factRepository.flush();
+        statsChangeRepository.markDays(validFacts.stream()
+                .map(ExecutionFact::getFinishTime)
+                .filter(Objects::nonNull)
+                .map(LocalDateTime::toLocalDate)
+                .toList());
+        listCache.factsChanged();
+        entityManager.clear();
+        log.debug("imported {} execution facts, declined {}", validFacts.size(), invalidFacts.size());
+        return new ExecutionFactUploadResultDto(validFacts.size(), invalidFacts.size(), invalidFacts);
+    }
+
+    private Map<UUID, Participant> resolveExecutors(List<RecordExecutionFactDto> factDtos) {
+        Set<UUID> executorIds = factDtos.stream()
+                .map(RecordExecutionFactDto::getExecutorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (executorIds.isEmpty()) {
+            return Map.of();
+        }
+        return participantCache.findAllById(executorIds).keySet().stream()
+                .collect(Collectors.toMap(Function.identity(), participantRepository::getReferenceById));
+    }
+
+    private Optional<ExceptionResponse> validate(RecordExecutionFactDto factDto, Map<UUID, Participant> executors) {
+        Set<ConstraintViolation<RecordExecutionFactDto>> violations = validator.validate(factDto);
+        if (!violations.isEmpty()) {
+            return Optional.of(toExceptionResponse(new ConstraintViolationException(violations).getMessage()));
+        }
+        if (factDto.getFinishTime() != null && factDto.getStartTime() == null) {
+            return Optional.of(toExceptionResponse("Start time must be specified if finish time is"));
+        }
+        if (!executors.containsKey(factDto.getExecutorId())) {
+            return Optional.of(toExceptionResponse(
+                    "Executor with id '%s' not found".formatted(factDto.getExecutorId())
+            ));
+        }
+        return Optional.empty();
+    }
+
+    private ExceptionResponse toExceptionResponse(String message) {
+        return ExceptionResponse.builder()
+                .withHttpStatus(HttpStatus.BAD_REQUEST)
+                .withDate(dateTimeService.utcNow())
+                .withMessage(message)
+                .build();
+    }
+
+}
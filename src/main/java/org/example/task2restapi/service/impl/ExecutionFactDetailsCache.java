@@ -0,0 +1,65 @@
+package org.example.task2restapi.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
+import org.example.task2restapi.dto.VersionedDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache of detailed execution fact dtos by fact id. Every entry holds version of fact and its executor it was
+ * built from, callers must compare it with current version before serving an entry, so entries left by
+ * bulk operations or participant updates are never served, they are only replaced.
+ * Size, ttl and statistics are configured by spring.cache.caffeine.spec.
+ */
+@Slf4j
+@Component
+public class ExecutionFactDetailsCache {
+
+    public static final String EXECUTION_FACT_DETAILS = "execution-fact-details";
+
+    private final Cache details;
+
+    public ExecutionFactDetailsCache(CacheManager cacheManager) {
+        this.details = cacheManager.getCache(EXECUTION_FACT_DETAILS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<VersionedDto<GetDetailedExecutionFactDto>> find(UUID id) {
+        return Optional.ofNullable(details.get(id, VersionedDto.class));
+    }
+
+    public VersionedDto<GetDetailedExecutionFactDto> put(UUID id, VersionedDto<GetDetailedExecutionFactDto> fact) {
+        details.put(id, fact);
+        return fact;
+    }
+
+    /**
+     * Evicts fact after current transaction is completed, so concurrent readers can not cache
+     * state that is about to change. Evicts immediately if there is no transaction.
+     */
+    public void evict(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doEvict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                doEvict(id);
+            }
+        });
+    }
+
+    private void doEvict(UUID id) {
+        log.debug("evicting execution fact details with id {}", id);
+        details.evict(id);
+    }
+
+}
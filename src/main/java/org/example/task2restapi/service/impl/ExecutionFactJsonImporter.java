@@ -0,0 +1,124 @@
+package org.example.task2restapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.controller.ExceptionResponse;
+import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.dto.RecordFactToItsValidationExceptions;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads json array of RecordExecutionFactDto element by element and imports it batch by batch,
+ * so memory usage does not depend on input size.
+ * Element that can not be bound to RecordExecutionFactDto is rejected like invalid fact, only broken json
+ * structure stops the import.
+ * If caller does not run in transaction then every batch is committed separately.
+ */
+@Slf4j
+@Component
+public class ExecutionFactJsonImporter {
+
+    private final ObjectMapper objectMapper;
+
+    private final ExecutionFactBatchImporter batchImporter;
+
+    private final Integer batchSize;
+
+    private final DateTimeService dateTimeService;
+
+    private final Counter importedRows;
+
+    private final Counter failedRows;
+
+    public ExecutionFactJsonImporter(ObjectMapper objectMapper,
+                                     ExecutionFactBatchImporter batchImporter,
+                                     @Qualifier("executionFactsUploadBatchSize")
+                                     Integer batchSize,
+                                     DateTimeService dateTimeService,
+                                     MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.batchImporter = batchImporter;
+        this.batchSize = batchSize;
+        this.dateTimeService = dateTimeService;
+        this.importedRows = uploadedRowsCounter("imported", meterRegistry);
+        this.failedRows = uploadedRowsCounter("failed", meterRegistry);
+    }
+
+    /**
+     * @param in json array of RecordExecutionFactDto
+     * @param progress receives result of every imported batch
+     * @throws JsonParseException given input is not json array, facts imported before are kept in progress
+     * @throws IOException given input can not be read
+     */
+    public void importFrom(InputStream in, ExecutionFactUploadProgress progress) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            List<RecordExecutionFactDto> batch = new ArrayList<>(batchSize);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected array of execution facts");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == null) {
+                    throw new JsonParseException(parser, "Unexpected end of array of execution facts");
+                }
+                JsonNode element = parser.readValueAsTree();
+                try {
+                    batch.add(objectMapper.treeToValue(element, RecordExecutionFactDto.class));
+                } catch (JsonProcessingException e) {
+                    reject(e.getOriginalMessage(), progress);
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    importBatch(batch, progress);
+                    batch.clear();
+                }
+            }
+            importBatch(batch, progress);
+        }
+    }
+
+    private void importBatch(List<RecordExecutionFactDto> batch, ExecutionFactUploadProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ExecutionFactUploadResultDto batchResult = batchImporter.importBatch(batch);
+        importedRows.increment(batchResult.getImportedCount());
+        failedRows.increment(batchResult.getFailedCount());
+        progress.add(batchResult);
+        log.debug("upload progress {}", progress.toDto());
+    }
+
+    private void reject(String message, ExecutionFactUploadProgress progress) {
+        ExceptionResponse errors = ExceptionResponse.builder()
+                .withHttpStatus(HttpStatus.BAD_REQUEST)
+                .withDate(dateTimeService.utcNow())
+                .withMessage(message)
+                .build();
+        failedRows.increment();
+        progress.add(new ExecutionFactUploadResultDto(0, 1, List.of(new RecordFactToItsValidationExceptions(null, errors))));
+        log.debug("failed to bind execution fact, {}", errors);
+    }
+
+    private static Counter uploadedRowsCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("execution_facts.upload.rows")
+                .description("Uploaded execution facts by import result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
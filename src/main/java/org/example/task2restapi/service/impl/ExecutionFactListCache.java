@@ -0,0 +1,118 @@
+package org.example.task2restapi.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.config.PrimaryReader;
+import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of filtered execution fact pages by normalized filter.
+ * Keys include write generations of facts (hot and archived) and of participants, every write bumps generation
+ * of its tables, so pages cached before the write are never served again and are left to size based eviction.
+ * Generations are kept in memory, so writes made by other instances are seen only after entries expire.
+ * Pages are loaded from primary database, as replica may still hold state preceding current generation.
+ * Cache is bounded by total count of cached facts and its ttl is configured separately from other caches
+ * (see executionFactsListCache bean), statistics are exposed as cache.gets metrics.
+ */
+@Slf4j
+@Component
+public class ExecutionFactListCache {
+
+    public static final String EXECUTION_FACTS_LIST = "execution-facts-list";
+
+    private final PrimaryReader primaryReader;
+
+    private final Cache pages;
+
+    private final AtomicLong factsGeneration = new AtomicLong();
+
+    private final AtomicLong participantsGeneration = new AtomicLong();
+
+    public ExecutionFactListCache(PrimaryReader primaryReader, CacheManager cacheManager) {
+        this.primaryReader = primaryReader;
+        this.pages = cacheManager.getCache(EXECUTION_FACTS_LIST);
+    }
+
+    /**
+     * Generations are read before page is loaded, so page loaded concurrently with a write is cached
+     * under generation that is already outdated.
+     * @param factFilterOptionsDto filter with default values assigned
+     * @param loader loads page if it is absent in cache
+     * @return cached or loaded page
+     */
+    public GetFilteredExecutionFactsDto get(ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                                           Supplier<GetFilteredExecutionFactsDto> loader) {
+        List<Object> key = List.of(normalize(factFilterOptionsDto), factsGeneration.get(), participantsGeneration.get());
+        GetFilteredExecutionFactsDto cached = pages.get(key, GetFilteredExecutionFactsDto.class);
+        if (cached != null) {
+            log.debug("got cached execution facts page by {}", key);
+            return cached;
+        }
+        GetFilteredExecutionFactsDto loaded = primaryReader.read(loader);
+        // page may be view of larger list, cached copy holds only its own facts
+        loaded.setExecutionFacts(List.copyOf(loaded.getExecutionFacts()));
+        pages.put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Bumps generation of facts after current transaction is completed, immediately if there is no transaction,
+     * so every chunk committed by bulk operation running without transaction is visible at once.
+     */
+    public void factsChanged() {
+        afterCompletion(() -> log.debug("execution facts generation bumped to {}", factsGeneration.incrementAndGet()));
+    }
+
+    /**
+     * Bumps generation of participants after current transaction is completed, immediately if there is no transaction.
+     */
+    public void participantsChanged() {
+        afterCompletion(() -> log.debug("participants generation bumped to {}", participantsGeneration.incrementAndGet()));
+    }
+
+    private void afterCompletion(Runnable action) {
+        // synchronization is active in scopes without actual transaction too, it would defer action to their end
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Copy of filter without parameters that do not change the result, so equal queries share an entry.
+     */
+    private static ExecutionFactFilterOptionsDto normalize(ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        boolean hasFinishTimeRange = factFilterOptionsDto.getFromFinishTime() != null &&
+                                     factFilterOptionsDto.getToFinishTime() != null;
+        boolean keyset = factFilterOptionsDto.getPaginationMode() == PaginationMode.KEYSET;
+        return new ExecutionFactFilterOptionsDto(
+                factFilterOptionsDto.getExecutorEmail(),
+                hasFinishTimeRange ? factFilterOptionsDto.getFromFinishTime() : null,
+                hasFinishTimeRange ? factFilterOptionsDto.getToFinishTime() : null,
+                factFilterOptionsDto.getDescription(),
+                keyset ? null : factFilterOptionsDto.getPageIndex(),
+                factFilterOptionsDto.getPageSize(),
+                factFilterOptionsDto.getPaginationMode(),
+                factFilterOptionsDto.getContinuationToken(),
+                keyset && Boolean.TRUE.equals(factFilterOptionsDto.getIncludeTotalPages()),
+                Boolean.TRUE.equals(factFilterOptionsDto.getIncludeArchived())
+        );
+    }
+
+}
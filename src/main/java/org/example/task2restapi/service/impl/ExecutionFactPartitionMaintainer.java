@@ -0,0 +1,123 @@
+package org.example.task2restapi.service.impl;
+
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.repository.ExecutionFactPartitionRepository;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Creates monthly partitions of execution_facts ahead of time, so writes of new facts do not have to create them,
+ * and on demand for facts finished in months without partition.
+ * Does nothing if table is not partitioned.
+ */
+@Slf4j
+@Component
+public class ExecutionFactPartitionMaintainer {
+
+    private final ExecutionFactPartitionRepository partitionRepository;
+
+    private final DateTimeService dateTimeService;
+
+    private final Integer monthsAhead;
+
+    /**
+     * Months whose partitions were seen by this instance, refreshed by every {@link #createUpcomingPartitions()}.
+     */
+    private final Set<YearMonth> knownMonths = ConcurrentHashMap.newKeySet();
+
+    private volatile Boolean partitioned;
+
+    public ExecutionFactPartitionMaintainer(ExecutionFactPartitionRepository partitionRepository,
+                                            DateTimeService dateTimeService,
+                                            @Qualifier("executionFactsPartitionsMonthsAhead")
+                                            Integer monthsAhead) {
+        this.partitionRepository = partitionRepository;
+        this.dateTimeService = dateTimeService;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Partition that can not be created is skipped and retried by next run.
+     * @return count of created partitions
+     */
+    @Scheduled(fixedDelayString = "${configuration.partitioning.execution-fact.interval}")
+    public int createUpcomingPartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        List<YearMonth> existing = partitionRepository.findMonthlyPartitions();
+        knownMonths.retainAll(existing);
+        knownMonths.addAll(existing);
+        YearMonth current = YearMonth.from(dateTimeService.utcNow());
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.contains(month)) {
+                continue;
+            }
+            try {
+                if (partitionRepository.createMonthlyPartition(month)) {
+                    created++;
+                    log.info("created execution facts partition for {}", month);
+                }
+                knownMonths.add(month);
+            } catch (PersistenceException e) {
+                log.warn("fail to create execution facts partition for {}, it will be retried", month, e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Must be called before facts with given finish times are written, partition is created for every month
+     * which is not known to have one. Months with partitions created ahead of time cost no queries.
+     * @param finishTimes finish times of facts to be written, nulls are ignored
+     */
+    public void ensurePartitionsFor(Collection<LocalDateTime> finishTimes) {
+        Set<YearMonth> months = finishTimes.stream()
+                .filter(Objects::nonNull)
+                .map(YearMonth::from)
+                .filter(month -> !knownMonths.contains(month))
+                .collect(Collectors.toSet());
+        if (months.isEmpty() || !isPartitioned()) {
+            return;
+        }
+        for (YearMonth month : months) {
+            if (partitionRepository.createMonthlyPartition(month)) {
+                log.info("created execution facts partition for {} on demand", month);
+            }
+            knownMonths.add(month);
+        }
+    }
+
+    /**
+     * Must be called after partition of given month is detached, so it is created again if facts of that month
+     * are written later.
+     */
+    public void forget(YearMonth month) {
+        knownMonths.remove(month);
+    }
+
+    /**
+     * Partitioning is changed only by migrations, so it is looked up once.
+     */
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = partitionRepository.isPartitioned();
+        }
+        return partitioned;
+    }
+
+}
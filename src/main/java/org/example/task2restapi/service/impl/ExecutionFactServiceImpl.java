@@ -1,67 +1,119 @@
 package org.example.task2restapi.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
+import com.fasterxml.jackson.core.JsonParseException;
+import jakarta.annotation.Nullable;
 import jakarta.transaction.Transactional;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
-import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.example.task2restapi.controller.ExceptionResponse;
+import org.example.task2restapi.config.ReadOnlyTransactional;
+import org.example.task2restapi.dto.BulkUpdateExecutionFactsDto;
+import org.example.task2restapi.dto.DurationHistogramBinDto;
+import org.example.task2restapi.dto.DurationPercentileDto;
+import org.example.task2restapi.dto.ExecutionFactBulkResultDto;
+import org.example.task2restapi.dto.ExecutionFactDurationPercentilesDto;
 import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.ExecutionFactStatsDto;
+import org.example.task2restapi.dto.ExecutionFactUploadProgressDto;
 import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+import org.example.task2restapi.dto.ExecutionFactVersionDto;
 import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
 import org.example.task2restapi.dto.GetExecutionFactDto;
+import org.example.task2restapi.dto.GetExecutionFactDurationPercentilesDto;
+import org.example.task2restapi.dto.GetExecutionFactStatsDto;
 import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.example.task2restapi.dto.PercentileBucket;
 import org.example.task2restapi.dto.RecordExecutionFactDto;
-import org.example.task2restapi.dto.RecordFactToItsValidationExceptions;
+import org.example.task2restapi.dto.StatsBucket;
 import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.dto.VersionedDto;
+import org.example.task2restapi.entity.AbstractExecutionFact;
+import org.example.task2restapi.entity.ArchivedExecutionFact;
 import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.ExecutionFactDailyStats;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram;
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
 import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.mapper.ExecutionFactMapper;
+import org.example.task2restapi.repository.ArchivedExecutionFactRepository;
+import org.example.task2restapi.repository.ExecutionFactDailyStatsRepository;
+import org.example.task2restapi.repository.ExecutionFactDurationHistogramRepository;
 import org.example.task2restapi.repository.ExecutionFactRepository;
+import org.example.task2restapi.repository.ExecutionFactStatsChangeRepository;
+import org.example.task2restapi.repository.ExecutionFactStatsRefreshRepository;
 import org.example.task2restapi.repository.ParticipantRepository;
+import org.example.task2restapi.service.ArchivedExecutionFactException;
 import org.example.task2restapi.service.DateTimeService;
 import org.example.task2restapi.service.ExecutionFactService;
+import org.example.task2restapi.service.StaleVersionException;
+import org.example.task2restapi.service.UploadFailedException;
+import org.example.task2restapi.specification.ExecutionFactCursor;
 import org.example.task2restapi.specification.ExecutionFactSpecs;
-import org.modelmapper.MappingException;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.spi.MappingContext;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.HttpStatus;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @Transactional
 public class ExecutionFactServiceImpl implements ExecutionFactService {
 
+    /**
+     * Version of fact and version of its executor, see {@link #toVersion}.
+     */
+    private static final Pattern VERSION_PATTERN = Pattern.compile("\\d{1,18}\\.\\d{1,18}");
+
     private final ExecutionFactRepository factRepository;
 
+    private final ArchivedExecutionFactRepository archivedFactRepository;
+
+    private final ExecutionFactDailyStatsRepository statsRepository;
+
+    private final ExecutionFactDurationHistogramRepository histogramRepository;
+
+    private final ExecutionFactStatsRefreshRepository statsRefreshRepository;
+
+    private final ExecutionFactStatsChangeRepository statsChangeRepository;
+
     private final ParticipantRepository participantRepository;
 
-    private final ModelMapper modelMapper;
+    private final ParticipantCache participantCache;
+
+    private final ExecutionFactDetailsCache detailsCache;
+
+    private final ExecutionFactListCache listCache;
+
+    private final ExecutionFactMapper executionFactMapper;
 
     private final DateTimeService dateTimeService;
 
@@ -69,57 +121,66 @@ public class ExecutionFactServiceImpl implements ExecutionFactService {
 
     private final ExecutionFactSpecs executionFactSpecs;
 
-    private final Validator validator;
+    private final Integer reportFetchSize;
 
-    private final ObjectMapper objectMapper;
+    private final Integer bulkChunkSize;
+
+    private final ExecutionFactJsonImporter jsonImporter;
+
+    private final ExecutionFactUploadProgressRegistry uploadProgressRegistry;
+
+    private final ExecutionFactPartitionMaintainer partitionMaintainer;
 
     public ExecutionFactServiceImpl(ExecutionFactRepository factRepository,
+                                    ArchivedExecutionFactRepository archivedFactRepository,
+                                    ExecutionFactDailyStatsRepository statsRepository,
+                                    ExecutionFactDurationHistogramRepository histogramRepository,
+                                    ExecutionFactStatsRefreshRepository statsRefreshRepository,
+                                    ExecutionFactStatsChangeRepository statsChangeRepository,
                                     ParticipantRepository participantRepository,
-                                    ModelMapper modelMapper,
+                                    ParticipantCache participantCache,
+                                    ExecutionFactDetailsCache detailsCache,
+                                    ExecutionFactListCache listCache,
+                                    ExecutionFactMapper executionFactMapper,
                                     DateTimeService dateTimeService,
                                     @Qualifier("executionFactsMaxPageSize")
                                     Integer getFactsMaxPageSize,
                                     ExecutionFactSpecs executionFactSpecs,
-                                    Validator validator, ObjectMapper objectMapper) {
+                                    @Qualifier("executionFactsReportFetchSize")
+                                    Integer reportFetchSize,
+                                    @Qualifier("executionFactsBulkChunkSize")
+                                    Integer bulkChunkSize,
+                                    ExecutionFactJsonImporter jsonImporter,
+                                    ExecutionFactUploadProgressRegistry uploadProgressRegistry,
+                                    ExecutionFactPartitionMaintainer partitionMaintainer) {
         this.factRepository = factRepository;
+        this.archivedFactRepository = archivedFactRepository;
+        this.statsRepository = statsRepository;
+        this.histogramRepository = histogramRepository;
+        this.statsRefreshRepository = statsRefreshRepository;
+        this.statsChangeRepository = statsChangeRepository;
         this.participantRepository = participantRepository;
-        this.modelMapper = modelMapper;
+        this.participantCache = participantCache;
+        this.detailsCache = detailsCache;
+        this.listCache = listCache;
+        this.executionFactMapper = executionFactMapper;
         this.dateTimeService = dateTimeService;
         this.getFactsMaxPageSize = getFactsMaxPageSize;
         this.executionFactSpecs = executionFactSpecs;
-        this.validator = validator;
-        this.objectMapper = objectMapper;
-    }
-
-    @PostConstruct
-    private void configureModelMapper() {
-        log.debug("configuring model mapper type map RecordExecutionFactDto=>ExecutionFact ");
-        modelMapper.emptyTypeMap(RecordExecutionFactDto.class, ExecutionFact.class).addMappings(mapping -> {
-            mapping.skip(ExecutionFact::setId);
-            mapping.using((MappingContext<UUID, Participant> ctx) -> {
-                        UUID id = ctx.getSource();
-                        if (id == null) {
-                            return null;
-                        } else {
-                            return getRawParticipantOrThrow(id);
-                        }
-                    }
-            ).map(RecordExecutionFactDto::getExecutorId, ExecutionFact::setExecutor);
-            mapping.using((MappingContext<LocalDateTime, LocalDateTime> ctx) -> {
-                if (ctx.getSource() == null) {
-                    return dateTimeService.utcNow();
-                }
-                return ctx.getSource();
-            }).map(
-                    RecordExecutionFactDto::getStartTime,
-                    ExecutionFact::setStartTime
-            );
-        }).implicitMappings();
-        log.debug("configured model mapper {}", modelMapper.getTypeMaps());
+        this.reportFetchSize = reportFetchSize;
+        this.bulkChunkSize = bulkChunkSize;
+        this.jsonImporter = jsonImporter;
+        this.uploadProgressRegistry = uploadProgressRegistry;
+        this.partitionMaintainer = partitionMaintainer;
     }
 
+    /**
+     * Existence of participant is checked by cache, so returned reference does not cost a select.
+     */
     private Participant getRawParticipantOrThrow(UUID id) {
-        return participantRepository.findById(id).orElseThrow(() ->
+        return participantCache.findById(id)
+                .map(participant -> participantRepository.getReferenceById(id))
+                .orElseThrow(() ->
                 {
                     IllegalArgumentException ex = new IllegalArgumentException("Executor with id '%s' not found".formatted(id));
                     log.debug("getRawParticipantOrThrow()", ex);
@@ -136,83 +197,347 @@ public class ExecutionFactServiceImpl implements ExecutionFactService {
             throw ex;
         }
         log.debug("mapping RecordExecutionFactDto {}", factDto);
-        ExecutionFact executionFact = modelMapper.map(factDto, ExecutionFact.class);
+        ExecutionFact executionFact = executionFactMapper.toEntity(
+                factDto, getRawParticipantOrThrow(factDto.getExecutorId())
+        );
+        partitionMaintainer.ensurePartitionsFor(Collections.singletonList(executionFact.getFinishTime()));
         log.debug("saving execution fact {}", executionFact);
         ExecutionFact saved = factRepository.save(executionFact);
+        if (saved.getFinishTime() != null) {
+            statsChangeRepository.markDays(Collections.singletonList(saved.getFinishTime().toLocalDate()));
+        }
+        listCache.factsChanged();
         log.debug("saved execution fact {}", saved);
         return saved.getId();
     }
 
     @Override
+    @ReadOnlyTransactional
     public GetDetailedExecutionFactDto getById(@NotNull UUID id) {
+        return getVersionedById(id).getValue();
+    }
+
+    /**
+     * Cached dto costs only select of versions, dto absent in cache is loaded with single query.
+     * Archived facts do not change anymore but are not cached, so they do not take place of hot facts.
+     */
+    @Override
+    @ReadOnlyTransactional
+    public VersionedDto<GetDetailedExecutionFactDto> getVersionedById(@NotNull UUID id) {
         log.debug("getting execution fact by id {}", id);
-        ExecutionFact got = getRawFactOrThrowNotFound(id);
+        Optional<VersionedDto<GetDetailedExecutionFactDto>> cached = detailsCache.find(id);
+        if (cached.isPresent()) {
+            Optional<String> version = factRepository.findVersionById(id)
+                    .map(found -> toVersion(found.getFactVersion(), found.getExecutorVersion()));
+            if (version.isEmpty()) {
+                detailsCache.evict(id);
+                return getArchivedById(id);
+            }
+            if (version.get().equals(cached.get().getVersion())) {
+                log.debug("got cached {}", cached.get());
+                return cached.get();
+            }
+        }
+        Optional<ExecutionFact> found = factRepository.findWithExecutorById(id);
+        if (found.isEmpty()) {
+            return getArchivedById(id);
+        }
+        ExecutionFact got = found.get();
         log.debug("got {}", got);
-        GetDetailedExecutionFactDto mapped = modelMapper.map(
-                got,
-                GetDetailedExecutionFactDto.class
-        );
+        GetDetailedExecutionFactDto mapped = executionFactMapper.toDetailedDto(got);
         log.debug("mapped to GetDetailedExecutionFactDto {}", mapped);
-        return mapped;
+        return detailsCache.put(id, new VersionedDto<>(toVersion(got.getVersion(), got.getExecutor().getVersion()), mapped));
     }
 
-    private ExecutionFact getRawFactOrThrowNotFound(UUID id) {
-        return factRepository.findById(id).orElseThrow(() ->
-                {
-                    IllegalArgumentException ex = new IllegalArgumentException("Execution fact with id '%s' not found".formatted(id));
-                    log.debug("getRawFactOrThrowNotFound()", ex);
-                    return ex;
-                }
-        );
+    private VersionedDto<GetDetailedExecutionFactDto> getArchivedById(UUID id) {
+        ArchivedExecutionFact got = archivedFactRepository.findWithExecutorById(id).orElseThrow(() -> factNotFound(id));
+        log.debug("got archived {}", got);
+        return new VersionedDto<>(toVersion(got.getVersion(), got.getExecutor().getVersion()),
+                executionFactMapper.toDetailedDto(got));
+    }
+
+    private static String toVersion(Long factVersion, Long executorVersion) {
+        return factVersion + "." + executorVersion;
+    }
+
+    private IllegalArgumentException factNotFound(UUID id) {
+        IllegalArgumentException ex = new IllegalArgumentException("Execution fact with id '%s' not found".formatted(id));
+        log.debug("factNotFound()", ex);
+        return ex;
+    }
+
+    /**
+     * Looked up only after fact was not found in execution_facts, so writes to existing facts cost nothing extra.
+     */
+    private RuntimeException factNotWritable(UUID id) {
+        return archivedFactRepository.existsById(id) ? factArchived(id) : factNotFound(id);
+    }
+
+    private ArchivedExecutionFactException factArchived(UUID id) {
+        ArchivedExecutionFactException ex = new ArchivedExecutionFactException(
+                "Execution fact with id '%s' is archived and can not be changed".formatted(id));
+        log.debug("factArchived()", ex);
+        return ex;
     }
 
     @Override
-    public void updateExecutionFact(@NotNull UUID id, @NotNull @Valid UpdateExecutionFactDto factDto) {
-        log.debug("updating execution fact with id {} with data {}", id, factDto);
-        ExecutionFact fact = getRawFactOrThrowNotFound(id);
-        log.debug("found execution fact {}", fact);
-        if (factDto.getDescription() != null) {
-            fact.setDescription(factDto.getDescription());
-        }
+    public void updateExecutionFact(@NotNull UUID id, @NotNull @Valid UpdateExecutionFactDto factDto,
+                                    @Nullable Collection<String> expectedVersions) {
+        log.debug("updating execution fact with id {} and versions {} with data {}", id, expectedVersions, factDto);
+        ExecutionFactVersionDto expected = expectedVersions == null ? null : matchVersion(id, expectedVersions);
         if (factDto.getExecutorId() != null) {
-            fact.setExecutor(getRawParticipantOrThrow(factDto.getExecutorId()));
+            getRawParticipantOrThrow(factDto.getExecutorId());
+        }
+        partitionMaintainer.ensurePartitionsFor(Collections.singletonList(factDto.getFinishTime()));
+        if (factRepository.updateIfCurrent(id, factDto, expected) == 0) {
+            throw updateFailure(id, factDto, expected);
         }
-        if (factDto.getStartTime() != null) {
-            fact.setStartTime(factDto.getStartTime());
+        detailsCache.evict(id);
+        listCache.factsChanged();
+        log.debug("updated execution fact with id {}", id);
+    }
+
+    /**
+     * Update statement does not tell why no row was updated, so cause is looked up only after it failed
+     * from current row: fact is gone, it was changed since expected version or given times conflict with its
+     * current ones. If none of it holds, the row was changed between update and lookup.
+     */
+    private RuntimeException updateFailure(UUID id, UpdateExecutionFactDto factDto,
+                                           @Nullable ExecutionFactVersionDto expected) {
+        Optional<ExecutionFact> found = factRepository.findWithExecutorById(id);
+        if (found.isEmpty()) {
+            return factNotWritable(id);
         }
-        if (factDto.getFinishTime() != null) {
-            fact.setFinishTime(factDto.getFinishTime());
+        ExecutionFact current = found.get();
+        LocalDateTime startTime = factDto.getStartTime() == null ? current.getStartTime() : factDto.getStartTime();
+        LocalDateTime finishTime = factDto.getFinishTime() == null ? current.getFinishTime() : factDto.getFinishTime();
+        RuntimeException ex;
+        if (expected != null && !expected.equals(
+                new ExecutionFactVersionDto(current.getVersion(), current.getExecutor().getVersion()))) {
+            ex = staleVersion(id, toVersion(expected.getFactVersion(), expected.getExecutorVersion()));
+        } else if (startTime != null && finishTime != null && startTime.isAfter(finishTime)) {
+            ex = new IllegalArgumentException("startTime is after finishTime");
+        } else {
+            ex = new StaleVersionException("Execution fact with id '%s' was changed concurrently".formatted(id));
         }
-        log.debug("updating execution fact with data {}", fact);
+        log.debug("updateFailure()", ex);
+        return ex;
+    }
+
+    /**
+     * Single expected version is checked by update statement itself, current version is looked up only if
+     * there are several of them.
+     * @return expected version that update must be conditional on
+     * @throws StaleVersionException none of given versions is current
+     */
+    private ExecutionFactVersionDto matchVersion(UUID id, Collection<String> expectedVersions) {
+        List<ExecutionFactVersionDto> parsed = expectedVersions.stream()
+                .filter(version -> VERSION_PATTERN.matcher(version).matches())
+                .map(version -> version.split("\\."))
+                .map(parts -> new ExecutionFactVersionDto(Long.valueOf(parts[0]), Long.valueOf(parts[1])))
+                .toList();
+        if (parsed.size() == 1) {
+            return parsed.get(0);
+        }
+        Optional<ExecutionFactVersionDto> matched = parsed.isEmpty() ? Optional.empty() :
+                Optional.of(factRepository.findVersionById(id).orElseThrow(() -> factNotWritable(id)))
+                        .filter(parsed::contains);
+        return matched.orElseThrow(() -> {
+            StaleVersionException ex = staleVersion(id, String.join(", ", expectedVersions));
+            log.debug("matchVersion()", ex);
+            return ex;
+        });
+    }
+
+    private static StaleVersionException staleVersion(UUID id, String expectedVersion) {
+        return new StaleVersionException(
+                "Execution fact with id '%s' is not of version '%s'".formatted(id, expectedVersion));
     }
 
     @Override
     public void deleteById(@NotNull UUID id) {
         log.debug("deleting execution fact with id {}", id);
-        factRepository.deleteById(id);
+        statsChangeRepository.markFacts(Collections.singletonList(id));
+        Optional<ExecutionFact> found = factRepository.findById(id);
+        if (found.isEmpty()) {
+            if (archivedFactRepository.existsById(id)) {
+                throw factArchived(id);
+            }
+            return;
+        }
+        factRepository.delete(found.get());
+        detailsCache.evict(id);
+        listCache.factsChanged();
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public ExecutionFactBulkResultDto deleteAll(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        log.debug("deleting execution facts by filter {}", factFilterOptionsDto);
+        validateBulkFilter(factFilterOptionsDto);
+        Specification<ExecutionFact> filter = executionFactSpecs.byFilterDto(factFilterOptionsDto);
+        long deleted = 0;
+        int deletedInChunk;
+        do {
+            // deleted facts leave selection, so every chunk is taken from its start without any cursor
+            deletedInChunk = factRepository.deleteFirst(filter, bulkChunkSize);
+            deleted += deletedInChunk;
+            listCache.factsChanged();
+            log.debug("deleted chunk of {} execution facts", deletedInChunk);
+        } while (deletedInChunk == bulkChunkSize);
+        log.debug("deleted {} execution facts", deleted);
+        return new ExecutionFactBulkResultDto(deleted);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public ExecutionFactBulkResultDto updateAll(@NotNull @Valid BulkUpdateExecutionFactsDto bulkUpdateDto) {
+        log.debug("updating execution facts with data {}", bulkUpdateDto);
+        validateBulkFilter(bulkUpdateDto.getFilter());
+        if (bulkUpdateDto.getExecutorId() == null && bulkUpdateDto.getDescription() == null) {
+            IllegalArgumentException ex = new IllegalArgumentException("At least one field to update must be specified");
+            log.debug("updateAll()", ex);
+            throw ex;
+        }
+        if (bulkUpdateDto.getExecutorId() != null) {
+            getRawParticipantOrThrow(bulkUpdateDto.getExecutorId());
+        }
+        long updated = forEachChunk(bulkUpdateDto.getFilter(), ids -> factRepository.updateByIds(
+                ids, bulkUpdateDto.getExecutorId(), bulkUpdateDto.getDescription()
+        ));
+        log.debug("updated {} execution facts", updated);
+        return new ExecutionFactBulkResultDto(updated);
+    }
+
+    /**
+     * Walks facts by filter in (finish time, id) order, facts with finish time and facts without it
+     * as separate segments like keyset pages, so every chunk is one index range continuing from previous one
+     * and each statement touches at most configured amount of rows.
+     * @return sum of counts returned by given action
+     */
+    private long forEachChunk(ExecutionFactFilterOptionsDto factFilterOptionsDto, ToIntFunction<List<UUID>> action) {
+        Specification<ExecutionFact> filter = executionFactSpecs.byFilterDto(factFilterOptionsDto);
+        long affected = 0;
+        ExecutionFactCursor cursor = null;
+        List<ExecutionFactCursor> chunk;
+        do {
+            chunk = factRepository.findCursors(filter.and(executionFactSpecs.finishedAfter(cursor)), bulkChunkSize);
+            affected += applyToChunk(chunk, action);
+            cursor = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1);
+        } while (chunk.size() == bulkChunkSize);
+        UUID afterId = null;
+        do {
+            chunk = factRepository.findCursors(filter.and(executionFactSpecs.unfinishedAfter(afterId)), bulkChunkSize);
+            affected += applyToChunk(chunk, action);
+            afterId = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == bulkChunkSize);
+        return affected;
+    }
+
+    private int applyToChunk(List<ExecutionFactCursor> chunk, ToIntFunction<List<UUID>> action) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int affected = action.applyAsInt(chunk.stream().map(ExecutionFactCursor::getId).toList());
+        listCache.factsChanged();
+        log.debug("processed chunk of {} execution facts", chunk.size());
+        return affected;
+    }
+
+    private void validateBulkFilter(ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        if (Boolean.TRUE.equals(factFilterOptionsDto.getIncludeArchived())) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "includeArchived: archived facts can not be changed");
+            log.debug("validateBulkFilter()", ex);
+            throw ex;
+        }
+        if (factFilterOptionsDto.getExecutorEmail() == null && factFilterOptionsDto.getDescription() == null &&
+            (factFilterOptionsDto.getFromFinishTime() == null || factFilterOptionsDto.getToFinishTime() == null)) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "filter: at least one of executorEmail, description or finish time range must be specified");
+            log.debug("validateBulkFilter()", ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    @ReadOnlyTransactional
     public GetFilteredExecutionFactsDto findAll(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto) {
         log.debug("finding execution facts by filter {}", factFilterOptionsDto);
         validatePageSize(factFilterOptionsDto);
         assignDefaultValues(factFilterOptionsDto);
-        Page<ExecutionFact> pageRequestResult = factRepository.findAll(
+        validatePaginationMode(factFilterOptionsDto);
+        return listCache.get(factFilterOptionsDto, () -> findAll(factType(factFilterOptionsDto), factFilterOptionsDto));
+    }
+
+    private <T extends AbstractExecutionFact> GetFilteredExecutionFactsDto findAll(
+            Class<T> type, ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        if (factFilterOptionsDto.getPaginationMode() == PaginationMode.KEYSET) {
+            return findAllByKeyset(type, factFilterOptionsDto);
+        }
+        Page<GetExecutionFactDto> pageRequestResult = factRepository.findPage(
+                type,
                 executionFactSpecs.byFilterDto(factFilterOptionsDto),
                 PageRequest.of(factFilterOptionsDto.getPageIndex(), factFilterOptionsDto.getPageSize())
         );
-        List<ExecutionFact> found = pageRequestResult.getContent();
-        log.debug("found execution facts {}", found);
-        List<GetExecutionFactDto> returned = found.stream()
-                .map(entity -> modelMapper.map(entity, GetExecutionFactDto.class))
-                .toList();
-        log.debug("mapped execution facts {}", returned);
+        List<GetExecutionFactDto> returned = pageRequestResult.getContent();
+        log.debug("found execution facts {}", returned);
         return GetFilteredExecutionFactsDto.builder()
                 .withExecutionFacts(returned)
                 .withTotalPages(pageRequestResult.getTotalPages())
                 .build();
     }
 
+    /**
+     * Facts with finish time and facts without it are read as separate segments, each of them is one index range,
+     * second segment is read only when first one does not fill requested page.
+     */
+    private <T extends AbstractExecutionFact> GetFilteredExecutionFactsDto findAllByKeyset(
+            Class<T> type, ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        Specification<T> filter = executionFactSpecs.byFilterDto(factFilterOptionsDto);
+        ExecutionFactCursor cursor = factFilterOptionsDto.getContinuationToken() == null ?
+                null : ExecutionFactCursor.decode(factFilterOptionsDto.getContinuationToken());
+        int pageSize = factFilterOptionsDto.getPageSize();
+        List<GetExecutionFactDto> found = new ArrayList<>(pageSize + 1);
+        boolean inFinishedSegment = cursor == null || cursor.getFinishTime() != null;
+        if (inFinishedSegment) {
+            found.addAll(factRepository.findFirst(type, filter.and(executionFactSpecs.finishedAfter(cursor)), pageSize + 1));
+        }
+        if (found.size() <= pageSize) {
+            Specification<T> unfinished = executionFactSpecs.unfinishedAfter(inFinishedSegment ? null : cursor.getId());
+            found.addAll(factRepository.findFirst(type, filter.and(unfinished), pageSize + 1 - found.size()));
+        }
+        log.debug("found execution facts {}", found);
+        boolean hasNext = found.size() > pageSize;
+        List<GetExecutionFactDto> returned = hasNext ? found.subList(0, pageSize) : found;
+        return GetFilteredExecutionFactsDto.builder()
+                .withExecutionFacts(returned)
+                .withTotalPages(Boolean.TRUE.equals(factFilterOptionsDto.getIncludeTotalPages()) ?
+                        (int) ((factRepository.count(type, filter) + pageSize - 1) / pageSize) : null)
+                .withNextContinuationToken(hasNext ?
+                        ExecutionFactCursor.of(returned.get(returned.size() - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * Archived facts are selected together with hot ones only on request, so default filters touch hot table only.
+     */
+    private Class<? extends AbstractExecutionFact> factType(ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        return Boolean.TRUE.equals(factFilterOptionsDto.getIncludeArchived()) ?
+                AbstractExecutionFact.class :
+                ExecutionFact.class;
+    }
+
+    private void validatePaginationMode(ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        if (factFilterOptionsDto.getPaginationMode() == PaginationMode.OFFSET &&
+            factFilterOptionsDto.getContinuationToken() != null) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "continuationToken: is supported only with KEYSET pagination mode");
+            log.debug("validatePaginationMode()", ex);
+            throw ex;
+        }
+    }
+
     private void validatePageSize(ExecutionFactFilterOptionsDto factFilterOptionsDto) {
         Integer pageSize = factFilterOptionsDto.getPageSize();
         if (pageSize != null && pageSize > getFactsMaxPageSize) {
@@ -230,35 +555,144 @@ public class ExecutionFactServiceImpl implements ExecutionFactService {
         if (factFilterOptionsDto.getPageSize() == null) {
             factFilterOptionsDto.setPageSize(50);
         }
+        if (factFilterOptionsDto.getPaginationMode() == null) {
+            factFilterOptionsDto.setPaginationMode(PaginationMode.OFFSET);
+        }
         log.debug("assigned default data to ExecutionFactFilterOptionsDto {}", factFilterOptionsDto);
     }
 
     @Override
-    public ByteArrayInputStream generateCsvReport(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+    @ReadOnlyTransactional
+    public GetExecutionFactStatsDto getStats(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                                             @NotNull StatsBucket bucket) {
+        log.debug("getting execution fact statistics by {} for filter {}", bucket, factFilterOptionsDto);
+        if (factFilterOptionsDto.getDescription() != null) {
+            IllegalArgumentException ex = new IllegalArgumentException("description: is not supported by statistics");
+            log.debug("getStats()", ex);
+            throw ex;
+        }
+        Specification<ExecutionFactDailyStats> filter = executionFactSpecs.statsByFilterDto(factFilterOptionsDto);
+        List<ExecutionFactStatsDto> stats = statsRepository.findStats(filter, bucket);
+        log.debug("found execution fact statistics {}", stats);
+        return GetExecutionFactStatsDto.builder()
+                .withStats(stats)
+                .withRefreshedAt(stats.isEmpty() ? null : findRefreshedAt(ExecutionFactStatsRefresh.DAILY_STATS))
+                .build();
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public GetExecutionFactDurationPercentilesDto getDurationPercentiles(
+            @NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto,
+            @NotNull PercentileBucket bucket,
+            @NotNull List<Double> percentiles) {
+        log.debug("getting execution fact duration percentiles {} by {} for filter {}",
+                percentiles, bucket, factFilterOptionsDto);
+        if (factFilterOptionsDto.getDescription() != null) {
+            IllegalArgumentException ex = new IllegalArgumentException("description: is not supported by percentiles");
+            log.debug("getDurationPercentiles()", ex);
+            throw ex;
+        }
+        if (percentiles.isEmpty() || percentiles.stream().anyMatch(p -> p == null || !(p > 0 && p <= 1))) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "percentiles: must be not empty and in range (0, 1], got %s".formatted(percentiles));
+            log.debug("getDurationPercentiles()", ex);
+            throw ex;
+        }
+        Specification<ExecutionFactDurationHistogram> filter = executionFactSpecs.histogramByFilterDto(factFilterOptionsDto);
+        List<DurationHistogramBinDto> bins = histogramRepository.findBins(filter, bucket);
+        List<ExecutionFactDurationPercentilesDto> buckets = bins.stream()
+                .collect(Collectors.groupingBy(bin -> List.of(bin.getBucketStart(), bin.getExecutorId())))
+                .values().stream()
+                .map(histogram -> toPercentilesDto(histogram, percentiles))
+                .sorted(Comparator.comparing(ExecutionFactDurationPercentilesDto::getBucketStart)
+                        .thenComparing(ExecutionFactDurationPercentilesDto::getExecutorId))
+                .toList();
+        log.debug("found execution fact duration percentiles {}", buckets);
+        return GetExecutionFactDurationPercentilesDto.builder()
+                .withBuckets(buckets)
+                .withRefreshedAt(buckets.isEmpty() ? null : findRefreshedAt(ExecutionFactStatsRefresh.DURATION_HISTOGRAM))
+                .build();
+    }
+
+    /**
+     * Rows of given statistics table are refreshed together, so they all are up to date as of last refresh.
+     */
+    @Nullable
+    private LocalDateTime findRefreshedAt(String stats) {
+        return statsRefreshRepository.findById(stats)
+                .map(ExecutionFactStatsRefresh::getRefreshedAt)
+                .orElse(null);
+    }
+
+    /**
+     * Percentile p is estimated as duration of fact with rank p * count, linearly interpolated inside its bin,
+     * so error is bounded by bin width.
+     * @param histogram bins of one executor in one bucket
+     */
+    private ExecutionFactDurationPercentilesDto toPercentilesDto(List<DurationHistogramBinDto> histogram,
+                                                                 List<Double> percentiles) {
+        List<DurationHistogramBinDto> sortedBins = histogram.stream()
+                .sorted(Comparator.comparing(DurationHistogramBinDto::getBin))
+                .toList();
+        long factCount = sortedBins.stream().mapToLong(DurationHistogramBinDto::getFactCount).sum();
+        List<DurationPercentileDto> values = percentiles.stream()
+                .map(percentile -> {
+                    double rank = percentile * factCount;
+                    long countBefore = 0;
+                    for (DurationHistogramBinDto bin : sortedBins) {
+                        if (countBefore + bin.getFactCount() >= rank) {
+                            double lower = ExecutionFactDurationHistogram.binLowerBoundMillis(bin.getBin());
+                            double upper = ExecutionFactDurationHistogram.binLowerBoundMillis(bin.getBin() + 1);
+                            double share = (rank - countBefore) / bin.getFactCount();
+                            return new DurationPercentileDto(percentile, Math.round(lower + (upper - lower) * share));
+                        }
+                        countBefore += bin.getFactCount();
+                    }
+                    throw new IllegalStateException("rank %s is greater than fact count %d".formatted(rank, factCount));
+                })
+                .toList();
+        DurationHistogramBinDto first = sortedBins.get(0);
+        return ExecutionFactDurationPercentilesDto.builder()
+                .withExecutorId(first.getExecutorId())
+                .withExecutorFullName(first.getExecutorFullName())
+                .withBucketStart(first.getBucketStart())
+                .withFactCount(factCount)
+                .withPercentiles(values)
+                .build();
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public void generateCsvReport(@NotNull @Valid ExecutionFactFilterOptionsDto factFilterOptionsDto,
+                                  @NotNull Supplier<OutputStream> out) {
         log.debug("generating csv report for execution facts for filter {}", factFilterOptionsDto);
-        try (
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                CSVPrinter csvPrinter = new CSVPrinter(new PrintWriter(out), CSVFormat.DEFAULT)
-        ) {
+        validatePageSize(factFilterOptionsDto);
+        try (Stream<GetExecutionFactDto> facts = streamAll(factType(factFilterOptionsDto), factFilterOptionsDto)) {
+            CSVPrinter csvPrinter = new CSVPrinter(
+                    new BufferedWriter(new OutputStreamWriter(out.get(), StandardCharsets.UTF_8)),
+                    CSVFormat.DEFAULT
+            );
             Object[] titles = {"id", "start_time", "finish_time",
                     "executor_full_name", "executor_id", "description"};
             csvPrinter.printRecord(titles);
             log.debug("added titles {}", titles);
-            for (GetExecutionFactDto fact : findAll(factFilterOptionsDto).getExecutionFacts()) {
+            Iterator<GetExecutionFactDto> iterator = facts.iterator();
+            while (iterator.hasNext()) {
+                GetExecutionFactDto fact = iterator.next();
                 List<String> data = Arrays.asList(
                         String.valueOf(fact.getId()),
-                        fact.getStartTime().format(DateTimeFormatter.ISO_DATE_TIME),
-                        fact.getFinishTime().format(DateTimeFormatter.ISO_DATE_TIME),
+                        formatNullable(fact.getStartTime()),
+                        formatNullable(fact.getFinishTime()),
                         fact.getExecutorFullName(),
                         String.valueOf(fact.getExecutorId()),
                         fact.getDescription()
                 );
                 csvPrinter.printRecord(data);
-                log.debug("added row {}", data);
+                log.trace("added row {}", data);
             }
             csvPrinter.flush();
             log.debug("finished generating csv");
-            return new ByteArrayInputStream(out.toByteArray());
         } catch (IOException e) {
             UncheckedIOException ex = new UncheckedIOException("Fail to import data to CSV file: " + e.getMessage(), e);
             log.debug("generateCsvReport()", ex);
@@ -266,58 +700,39 @@ public class ExecutionFactServiceImpl implements ExecutionFactService {
         }
     }
 
+    private <T extends AbstractExecutionFact> Stream<GetExecutionFactDto> streamAll(
+            Class<T> type, ExecutionFactFilterOptionsDto factFilterOptionsDto) {
+        return factRepository.streamAll(type, executionFactSpecs.byFilterDto(factFilterOptionsDto), reportFetchSize);
+    }
+
+    private String formatNullable(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.format(DateTimeFormatter.ISO_DATE_TIME);
+    }
+
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public ExecutionFactUploadResultDto uploadFromFile(@NotNull MultipartFile multipart) {
         log.debug("uploading data from file");
-        try {
-            byte[] fileBytes = multipart.getBytes();
-            int importedCount = 0;
-            int failedCount = 0;
-            List<RecordFactToItsValidationExceptions> invalidRecordDtosToItsValidationExceptions = new LinkedList<>();
-            List<RecordExecutionFactDto> factDtos = objectMapper.readValue(fileBytes, new TypeReference<>() {});
-            for(RecordExecutionFactDto dto : factDtos) {
-                Optional<RecordFactToItsValidationExceptions> exceptions = resolveFact(dto);
-                if(exceptions.isPresent()) {
-                    invalidRecordDtosToItsValidationExceptions.add(exceptions.get());
-                    failedCount++;
-                    log.debug("failed to load {}", exceptions.get());
-                } else {
-                    importedCount++;
-                    log.debug("loaded {}", dto);
-                }
-            }
-            return new ExecutionFactUploadResultDto(importedCount, failedCount, invalidRecordDtosToItsValidationExceptions);
+        ExecutionFactUploadProgress progress = uploadProgressRegistry.create();
+        progress.markRunning(dateTimeService.utcNow());
+        try (InputStream in = multipart.getInputStream()) {
+            jsonImporter.importFrom(in, progress);
+            return progress.toResultDto();
+        } catch (JsonParseException e) {
+            UploadFailedException ex = new UploadFailedException(e.getOriginalMessage(), progress.toResultDto());
+            log.debug("uploadFromFile()", ex);
+            throw ex;
         } catch (IOException e) {
             UncheckedIOException ex = new UncheckedIOException(e);
             log.debug("uploadFromFile()", ex);
             throw ex;
+        } finally {
+            uploadProgressRegistry.remove(progress);
         }
     }
 
-    private Optional<RecordFactToItsValidationExceptions> resolveFact(RecordExecutionFactDto factDto) {
-        try {
-            Set<ConstraintViolation<RecordExecutionFactDto>> validate = validator.validate(factDto);
-            if(validate.isEmpty()) {
-                recordExecutionFact(factDto);
-                return Optional.empty();
-            }
-            return Optional.of(
-                    new RecordFactToItsValidationExceptions(
-                            factDto, toExceptionResponse(new ConstraintViolationException(validate))
-                    )
-            );
-        } catch (MappingException e) {
-            return Optional.of(
-                    new RecordFactToItsValidationExceptions(factDto, toExceptionResponse(e.getCause()))
-            );
-        }
-    }
-
-    private ExceptionResponse toExceptionResponse(Throwable e) {
-        return ExceptionResponse.builder()
-                        .withHttpStatus(HttpStatus.BAD_REQUEST)
-                        .withDate(dateTimeService.utcNow())
-                        .withMessage(e.getMessage())
-                        .build();
+    @Override
+    public List<ExecutionFactUploadProgressDto> getUploadsInProgress() {
+        return uploadProgressRegistry.getRunning();
     }
 }
@@ -0,0 +1,61 @@
+package org.example.task2restapi.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.repository.ExecutionFactDailyStatsRepository;
+import org.example.task2restapi.repository.ExecutionFactDurationHistogramRepository;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.OptionalInt;
+
+/**
+ * Keeps execution_fact_daily_stats and execution_fact_duration_histogram up to date,
+ * statistics lag behind facts by at most refresh interval. Only days marked in execution_fact_stats_changes
+ * by writers are recomputed.
+ */
+@Slf4j
+@Component
+public class ExecutionFactStatsRefresher {
+
+    private final ExecutionFactDailyStatsRepository statsRepository;
+
+    private final ExecutionFactDurationHistogramRepository histogramRepository;
+
+    private final DateTimeService dateTimeService;
+
+    private final int changesBatchSize;
+
+    public ExecutionFactStatsRefresher(ExecutionFactDailyStatsRepository statsRepository,
+                                       ExecutionFactDurationHistogramRepository histogramRepository,
+                                       DateTimeService dateTimeService,
+                                       @Qualifier("executionFactsStatsChangesBatchSize")
+                                       Integer changesBatchSize) {
+        this.statsRepository = statsRepository;
+        this.histogramRepository = histogramRepository;
+        this.dateTimeService = dateTimeService;
+        this.changesBatchSize = changesBatchSize;
+    }
+
+    /**
+     * Table which is being refreshed by other instance is skipped.
+     * @return count of stored daily and histogram rows
+     */
+    @Scheduled(fixedDelayString = "${configuration.endpoints.execution-fact._stats.refresh-interval}")
+    public int refresh() {
+        LocalDateTime now = dateTimeService.utcNow();
+        OptionalInt dailyRows = statsRepository.refresh(now, changesBatchSize);
+        if (dailyRows.isEmpty()) {
+            log.debug("execution fact daily statistics are being refreshed by other instance, skipped");
+        }
+        OptionalInt histogramRows = histogramRepository.refresh(now, changesBatchSize);
+        if (histogramRows.isEmpty()) {
+            log.debug("execution fact duration histograms are being refreshed by other instance, skipped");
+        }
+        log.debug("refreshed execution fact statistics, {} daily rows, {} histogram rows", dailyRows, histogramRows);
+        return dailyRows.orElse(0) + histogramRows.orElse(0);
+    }
+
+}
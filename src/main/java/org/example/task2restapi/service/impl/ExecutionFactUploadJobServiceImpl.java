@@ -0,0 +1,135 @@
+package org.example.task2restapi.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.dto.ExecutionFactUploadJobDto;
+import org.example.task2restapi.service.DateTimeService;
+import org.example.task2restapi.service.ExecutionFactUploadJobService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Is not transactional on purpose, so every batch of upload job is committed separately.
+ * Spooled file of job is deleted before job reaches terminal state or submission fails.
+ * Jobs are tracked only in memory, so spool directory must not be shared by instances
+ * and files left in it by previous run are deleted at startup.
+ */
+@Slf4j
+@Service
+public class ExecutionFactUploadJobServiceImpl implements ExecutionFactUploadJobService {
+
+    private final ExecutionFactUploadProgressRegistry uploadProgressRegistry;
+
+    private final ExecutionFactJsonImporter jsonImporter;
+
+    private final TaskExecutor uploadExecutor;
+
+    private final Path spoolDirectory;
+
+    private final DateTimeService dateTimeService;
+
+    public ExecutionFactUploadJobServiceImpl(ExecutionFactUploadProgressRegistry uploadProgressRegistry,
+                                             ExecutionFactJsonImporter jsonImporter,
+                                             @Qualifier("executionFactUploadExecutor")
+                                             TaskExecutor uploadExecutor,
+                                             @Qualifier("executionFactsUploadSpoolDirectory")
+                                             Path spoolDirectory,
+                                             DateTimeService dateTimeService) {
+        this.uploadProgressRegistry = uploadProgressRegistry;
+        this.jsonImporter = jsonImporter;
+        this.uploadExecutor = uploadExecutor;
+        this.spoolDirectory = spoolDirectory;
+        this.dateTimeService = dateTimeService;
+    }
+
+    /**
+     * Jobs of files left by previous run are lost with it, so the files can not be recovered and are deleted.
+     */
+    @PostConstruct
+    private void prepareSpoolDirectory() throws IOException {
+        Files.createDirectories(spoolDirectory);
+        try (Stream<Path> leftovers = Files.list(spoolDirectory)) {
+            leftovers.filter(Files::isRegularFile).forEach(this::deleteSpooled);
+        }
+        log.debug("using spool directory {}", spoolDirectory);
+    }
+
+    @Override
+    public UUID submit(@NotNull MultipartFile multipart) {
+        ExecutionFactUploadProgress progress = uploadProgressRegistry.create();
+        Path spooled = spoolDirectory.resolve(progress.getUploadId() + ".json");
+        boolean submitted = false;
+        try {
+            multipart.transferTo(spooled);
+            log.debug("spooled upload {} to {}", progress.getUploadId(), spooled);
+            uploadExecutor.execute(() -> runJob(progress, spooled));
+            submitted = true;
+            return progress.getUploadId();
+        } catch (IOException e) {
+            UncheckedIOException ex = new UncheckedIOException(e);
+            log.debug("submit()", ex);
+            throw ex;
+        } catch (TaskRejectedException e) {
+            log.debug("submit()", e);
+            throw e;
+        } finally {
+            if (!submitted) {
+                discard(progress, spooled);
+            }
+        }
+    }
+
+    private void runJob(ExecutionFactUploadProgress progress, Path spooled) {
+        try {
+            progress.markRunning(dateTimeService.utcNow());
+            log.debug("started upload job {}", progress.getUploadId());
+            try (InputStream in = Files.newInputStream(spooled)) {
+                jsonImporter.importFrom(in, progress);
+            }
+            deleteSpooled(spooled);
+            progress.markCompleted(dateTimeService.utcNow());
+            log.debug("completed upload job {}", progress.toDto());
+        } catch (IOException | RuntimeException e) {
+            deleteSpooled(spooled);
+            progress.markFailed(dateTimeService.utcNow(), e.getMessage());
+            log.warn("upload job {} failed", progress.getUploadId(), e);
+        }
+    }
+
+    private void discard(ExecutionFactUploadProgress progress, Path spooled) {
+        uploadProgressRegistry.remove(progress);
+        deleteSpooled(spooled);
+    }
+
+    private void deleteSpooled(Path spooled) {
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("failed to delete spooled upload {}", spooled, e);
+        }
+    }
+
+    @Override
+    public ExecutionFactUploadJobDto getById(@NotNull UUID id) {
+        return uploadProgressRegistry.get(id)
+                .map(ExecutionFactUploadProgress::toJobDto)
+                .orElseThrow(() -> {
+                    IllegalArgumentException ex = new IllegalArgumentException("Upload job with id '%s' not found".formatted(id));
+                    log.debug("getById()", ex);
+                    return ex;
+                });
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.example.task2restapi.service.impl;
+
+import lombok.Getter;
+import org.example.task2restapi.dto.ExecutionFactUploadJobDto;
+import org.example.task2restapi.dto.ExecutionFactUploadProgressDto;
+import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
+import org.example.task2restapi.dto.RecordFactToItsValidationExceptions;
+import org.example.task2restapi.dto.UploadJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of upload, it is updated by upload thread after every batch and can be read concurrently.
+ * Only first maxReportedErrors declined facts are kept, counts always cover whole upload.
+ */
+@Getter
+public class ExecutionFactUploadProgress {
+
+    private final UUID uploadId;
+
+    private final LocalDateTime submittedAt;
+
+    private final int maxReportedErrors;
+
+    private final AtomicLong importedCount = new AtomicLong();
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private final List<RecordFactToItsValidationExceptions> reportedErrors = new ArrayList<>();
+
+    private volatile UploadJobStatus status = UploadJobStatus.QUEUED;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String failureMessage;
+
+    public ExecutionFactUploadProgress(UUID uploadId, LocalDateTime submittedAt, int maxReportedErrors) {
+        this.uploadId = uploadId;
+        this.submittedAt = submittedAt;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public void markRunning(LocalDateTime now) {
+        startedAt = now;
+        status = UploadJobStatus.RUNNING;
+    }
+
+    public void markCompleted(LocalDateTime now) {
+        finishedAt = now;
+        status = UploadJobStatus.COMPLETED;
+    }
+
+    public void markFailed(LocalDateTime now, String message) {
+        finishedAt = now;
+        failureMessage = message;
+        status = UploadJobStatus.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == UploadJobStatus.COMPLETED || status == UploadJobStatus.FAILED;
+    }
+
+    public void add(ExecutionFactUploadResultDto batchResult) {
+        synchronized (reportedErrors) {
+            batchResult.getObjectToItsErrors().stream()
+                    .limit(Math.max(0, maxReportedErrors - reportedErrors.size()))
+                    .forEach(reportedErrors::add);
+        }
+        importedCount.addAndGet(batchResult.getImportedCount());
+        failedCount.addAndGet(batchResult.getFailedCount());
+    }
+
+    public ExecutionFactUploadProgressDto toDto() {
+        long imported = importedCount.get();
+        long failed = failedCount.get();
+        return new ExecutionFactUploadProgressDto(uploadId, startedAt, imported + failed, imported, failed);
+    }
+
+    public ExecutionFactUploadResultDto toResultDto() {
+        return new ExecutionFactUploadResultDto(
+                Math.toIntExact(importedCount.get()), Math.toIntExact(failedCount.get()), copyReportedErrors()
+        );
+    }
+
+    public ExecutionFactUploadJobDto toJobDto() {
+        return ExecutionFactUploadJobDto.builder()
+                .withId(uploadId)
+                .withStatus(status)
+                .withSubmittedAt(submittedAt)
+                .withStartedAt(startedAt)
+                .withFinishedAt(finishedAt)
+                .withImportedCount(importedCount.get())
+                .withFailedCount(failedCount.get())
+                .withFailureMessage(failureMessage)
+                .withObjectToItsErrors(copyReportedErrors())
+                .build();
+    }
+
+    private List<RecordFactToItsValidationExceptions> copyReportedErrors() {
+        synchronized (reportedErrors) {
+            return new ArrayList<>(reportedErrors);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.example.task2restapi.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.dto.ExecutionFactUploadProgressDto;
+import org.example.task2restapi.dto.UploadJobStatus;
+import org.example.task2restapi.service.DateTimeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps state of uploads. Finished uploads that were not removed explicitly are kept for configured retention,
+ * so their results can still be polled.
+ */
+@Slf4j
+@Component
+public class ExecutionFactUploadProgressRegistry {
+
+    private final Map<UUID, ExecutionFactUploadProgress> uploads = new ConcurrentHashMap<>();
+
+    private final DateTimeService dateTimeService;
+
+    private final Integer maxReportedErrors;
+
+    private final Duration finishedRetention;
+
+    public ExecutionFactUploadProgressRegistry(DateTimeService dateTimeService,
+                                               @Qualifier("executionFactsUploadMaxReportedErrors")
+                                               Integer maxReportedErrors,
+                                               @Qualifier("executionFactsUploadJobRetention")
+                                               Duration finishedRetention) {
+        this.dateTimeService = dateTimeService;
+        this.maxReportedErrors = maxReportedErrors;
+        this.finishedRetention = finishedRetention;
+    }
+
+    /**
+     * @return state of new queued upload
+     */
+    public ExecutionFactUploadProgress create() {
+        evictExpired();
+        ExecutionFactUploadProgress progress = new ExecutionFactUploadProgress(
+                UUID.randomUUID(), dateTimeService.utcNow(), maxReportedErrors
+        );
+        uploads.put(progress.getUploadId(), progress);
+        log.debug("created upload {}", progress.getUploadId());
+        return progress;
+    }
+
+    public Optional<ExecutionFactUploadProgress> get(UUID uploadId) {
+        return Optional.ofNullable(uploads.get(uploadId));
+    }
+
+    public void remove(ExecutionFactUploadProgress progress) {
+        uploads.remove(progress.getUploadId());
+        log.debug("removed upload {}", progress.toDto());
+    }
+
+    /**
+     * @return progress of running uploads, oldest first
+     */
+    public List<ExecutionFactUploadProgressDto> getRunning() {
+        return uploads.values().stream()
+                .filter(progress -> progress.getStatus() == UploadJobStatus.RUNNING)
+                .map(ExecutionFactUploadProgress::toDto)
+                .sorted(Comparator.comparing(ExecutionFactUploadProgressDto::getStartedAt))
+                .toList();
+    }
+
+    private void evictExpired() {
+        LocalDateTime expiredBefore = dateTimeService.utcNow().minus(finishedRetention);
+        uploads.values().removeIf(progress -> progress.isFinished() && progress.getFinishedAt().isBefore(expiredBefore));
+    }
+
+}
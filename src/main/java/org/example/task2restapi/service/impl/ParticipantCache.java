@@ -0,0 +1,154 @@
+package org.example.task2restapi.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task2restapi.config.PrimaryReader;
+import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.mapper.ParticipantMapper;
+import org.example.task2restapi.repository.ParticipantRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of participants by id and by email.
+ * Holds dto snapshots instead of entities, so cached values are never attached to any persistence context.
+ * Only existing participants are cached, missing ones are looked up every time.
+ * Participants loaded while any participant was evicted are not left in cache, as they may be loaded
+ * before change was committed. Participants are loaded from primary database, as replica may still hold
+ * state which was evicted.
+ * Size, ttl and statistics are configured by spring.cache.caffeine.spec.
+ */
+@Slf4j
+@Component
+public class ParticipantCache {
+
+    public static final String PARTICIPANTS_BY_ID = "participants-by-id";
+
+    public static final String PARTICIPANTS_BY_EMAIL = "participants-by-email";
+
+    private final ParticipantRepository participantRepository;
+
+    private final ParticipantMapper participantMapper;
+
+    private final PrimaryReader primaryReader;
+
+    private final Cache byId;
+
+    private final Cache byEmail;
+
+    /**
+     * Incremented on every eviction, loads that overlap an eviction drop their result from cache.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ParticipantCache(ParticipantRepository participantRepository,
+                            ParticipantMapper participantMapper,
+                            PrimaryReader primaryReader,
+                            CacheManager cacheManager) {
+        this.participantRepository = participantRepository;
+        this.participantMapper = participantMapper;
+        this.primaryReader = primaryReader;
+        this.byId = cacheManager.getCache(PARTICIPANTS_BY_ID);
+        this.byEmail = cacheManager.getCache(PARTICIPANTS_BY_EMAIL);
+    }
+
+    public Optional<GetParticipantDto> findById(UUID id) {
+        GetParticipantDto cached = byId.get(id, GetParticipantDto.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long evictionsBeforeLoad = evictions.get();
+        return primaryReader.read(() -> participantRepository.findById(id).map(participantMapper::toGetDto))
+                .map(participant -> put(participant, evictionsBeforeLoad));
+    }
+
+    public Optional<GetParticipantDto> findByEmail(String email) {
+        GetParticipantDto cached = byEmail.get(email, GetParticipantDto.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long evictionsBeforeLoad = evictions.get();
+        return primaryReader.read(() -> participantRepository.findByEmail(email).map(participantMapper::toGetDto))
+                .map(participant -> put(participant, evictionsBeforeLoad));
+    }
+
+    /**
+     * Participants absent in cache are loaded with single query.
+     * @return found participants by their ids, missing ids are not present in map
+     */
+    public Map<UUID, GetParticipantDto> findAllById(Collection<UUID> ids) {
+        Map<UUID, GetParticipantDto> found = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID id : ids) {
+            GetParticipantDto cached = byId.get(id, GetParticipantDto.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long evictionsBeforeLoad = evictions.get();
+            primaryReader.read(() -> participantRepository.findAllById(missing).stream()
+                            .map(participantMapper::toGetDto)
+                            .toList())
+                    .stream()
+                    .map(participant -> put(participant, evictionsBeforeLoad))
+                    .forEach(participant -> found.put(participant.getId(), participant));
+        }
+        return found;
+    }
+
+    /**
+     * Evicts participant after current transaction is completed, so readers of this transaction's state
+     * do not cache it before it is committed. Evicts immediately if there is no transaction.
+     * Readers that loaded participant before commit and cache it after eviction drop their entry, see {@link #put}.
+     */
+    public void evict(UUID id, String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doEvict(id, email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                doEvict(id, email);
+            }
+        });
+    }
+
+    private void doEvict(UUID id, String email) {
+        log.debug("evicting participant with id {} and email {}", id, email);
+        evictions.incrementAndGet();
+        byId.evict(id);
+        byEmail.evict(email);
+    }
+
+    /**
+     * Entry is put before evictions are checked, so eviction either is seen by this check
+     * or removes the entry itself.
+     * @param evictionsBeforeLoad count of evictions before participant was loaded
+     */
+    private GetParticipantDto put(GetParticipantDto participant, long evictionsBeforeLoad) {
+        byId.put(participant.getId(), participant);
+        byEmail.put(participant.getEmail(), participant);
+        if (evictions.get() != evictionsBeforeLoad) {
+            log.debug("participant {} may have changed while it was loaded, dropping it from cache", participant);
+            byId.evict(participant.getId());
+            byEmail.evict(participant.getEmail());
+        }
+        return participant;
+    }
+
+}
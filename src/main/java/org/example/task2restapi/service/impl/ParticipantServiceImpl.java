@@ -1,29 +1,58 @@
 package org.example.task2restapi.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.Nullable;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.profitsoft.kafka.messages.SimpleEmailDto;
+import org.example.task2restapi.config.ReadOnlyTransactional;
+import org.example.task2restapi.controller.ExceptionResponse;
 import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.GetParticipantsPageDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.example.task2restapi.dto.ParticipantRegistrationResultDto;
 import org.example.task2restapi.dto.RegisterParticipantDto;
+import org.example.task2restapi.dto.RegisterParticipantToItsValidationExceptions;
 import org.example.task2restapi.dto.UpdateParticipantDto;
 import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.mapper.ParticipantMapper;
 import org.example.task2restapi.repository.ParticipantRepository;
 import org.example.task2restapi.service.DateTimeService;
 import org.example.task2restapi.service.ParticipantService;
-import org.modelmapper.ModelMapper;
+import org.example.task2restapi.specification.ParticipantCursor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaOperations;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -31,62 +60,237 @@ import java.util.UUID;
 @Transactional
 public class ParticipantServiceImpl implements ParticipantService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final ParticipantRepository participantRepository;
 
-    private final ModelMapper modelMapper;
+    private final ParticipantMapper participantMapper;
+
+    private final ParticipantCache participantCache;
+
+    private final ExecutionFactListCache listCache;
 
     @Value("${kafka.topic.simpleEmail}")
     private String simpleEmailTopic;
 
-    private final KafkaOperations<String, SimpleEmailDto> kafkaOperations;
+    @Value("${configuration.endpoints.participant.max-page-size}")
+    private Integer maxPageSize;
+
+    @Value("${configuration.endpoints.participant._bulk.max-size}")
+    private Integer bulkMaxSize;
+
+    private final ObjectMapper objectMapper;
+
+    private final EmailOutbox emailOutbox;
 
     private final DateTimeService dateTimeService;
 
+    private final Validator validator;
+
     @Override
-    public List<GetParticipantDto> findAll() {
-        log.debug("getting all participants");
-        List<Participant> all = participantRepository.findAll();
-        log.debug("got {}", all);
-        List<GetParticipantDto> mapped = all.stream()
-                .map(entity -> modelMapper.map(entity, GetParticipantDto.class))
-                .toList();
-        log.debug("mapped {}", mapped);
-        return mapped;
+    @ReadOnlyTransactional
+    public GetParticipantsPageDto findPage(@NotNull PaginationMode paginationMode, @Nullable String continuationToken,
+                                           @Nullable Integer pageSize) {
+        validatePaginationMode(paginationMode);
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        validatePageSize(size);
+        Pageable limit = PageRequest.ofSize(size + 1);
+        log.debug("getting participants page of size {} after {}", size, continuationToken);
+        List<GetParticipantDto> found = continuationToken == null ?
+                participantRepository.findFirstPage(limit) :
+                participantRepository.findPageAfter(ParticipantCursor.decode(continuationToken).getId(), limit);
+        boolean hasNext = found.size() > size;
+        List<GetParticipantDto> returned = hasNext ? found.subList(0, size) : found;
+        log.debug("got {} participants", returned.size());
+        return GetParticipantsPageDto.builder()
+                .withParticipants(returned)
+                .withNextContinuationToken(hasNext ?
+                        ParticipantCursor.of(returned.get(returned.size() - 1)).encode() : null)
+                .build();
+    }
+
+    private void validatePaginationMode(PaginationMode paginationMode) {
+        if (paginationMode != PaginationMode.KEYSET) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "paginationMode: only KEYSET is supported for participants");
+            log.debug("validatePaginationMode()", ex);
+            throw ex;
+        }
+    }
+
+    private void validatePageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "pageSize: must be between 1 and %s".formatted(maxPageSize));
+            log.debug("validatePageSize()", ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public void writeAll(@NotNull Supplier<OutputStream> out) {
+        log.debug("writing all participants");
+        writeAll(out, true);
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public void streamAll(@NotNull Supplier<OutputStream> out) {
+        log.debug("streaming all participants");
+        writeAll(out, false);
+    }
+
+    /**
+     * @param asArray write participants as json array if true, as newline delimited json otherwise
+     */
+    private void writeAll(Supplier<OutputStream> out, boolean asArray) {
+        ObjectWriter writer = objectMapper.writerFor(GetParticipantDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // closed generator flushes its buffer and given stream once, stream itself stays open
+        try (Stream<GetParticipantDto> participants = participantRepository.streamAll();
+             JsonGenerator generator = objectMapper.createGenerator(out.get())
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            if (asArray) {
+                generator.writeStartArray();
+            }
+            Iterator<GetParticipantDto> iterator = participants.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                if (!asArray) {
+                    generator.writeRaw('\n');
+                }
+            }
+            if (asArray) {
+                generator.writeEndArray();
+            }
+            log.debug("finished writing participants");
+        } catch (IOException e) {
+            UncheckedIOException ex = new UncheckedIOException("Fail to write participants: " + e.getMessage(), e);
+            log.debug("writeAll()", ex);
+            throw ex;
+        }
     }
 
     @Override
     public UUID register(@NotNull @Valid RegisterParticipantDto participantDto) {
-        throwIfEmailTaken(participantDto.getEmail());
         log.debug("mapping RegisterParticipantDto {}", participantDto);
-        Participant mapped = modelMapper.map(participantDto, Participant.class);
+        Participant mapped = participantMapper.toEntity(participantDto);
         log.debug("mapped participant {}", mapped);
         Participant saved = participantRepository.save(mapped);
+        flushOrThrowIfEmailTaken(saved.getEmail());
         log.debug("saved participant {}", saved);
+        participantCache.evict(saved.getId(), saved.getEmail());
         sendNewUserEmailNotificationToAdmin(saved);
         return saved.getId();
     }
 
-    private void sendNewUserEmailNotificationToAdmin(Participant newUser) {
-        Message<SimpleEmailDto> message = MessageBuilder
-                .withPayload(
-                        new SimpleEmailDto("no.reply.new.account.notification@gmail.com",
-                                List.of(newUser.getEmail()),
-                                "New user notification",
-                                "You were registered at our site! Link to site ....",
-                                Date.from(dateTimeService.instantUtcNow()))
-                )
-                .setHeader(KafkaHeaders.TOPIC, simpleEmailTopic)
-                .setHeader(KafkaHeaders.KEY, newUser.getId().toString())
+    @Override
+    public ParticipantRegistrationResultDto registerAll(@NotNull List<RegisterParticipantDto> participantDtos) {
+        validateBulkSize(participantDtos.size());
+        log.debug("registering {} participants", participantDtos.size());
+        Set<String> takenEmails = findTakenEmails(participantDtos);
+        List<Participant> validParticipants = new ArrayList<>(participantDtos.size());
+        List<RegisterParticipantToItsValidationExceptions> invalidParticipants = new LinkedList<>();
+        for (RegisterParticipantDto participantDto : participantDtos) {
+            Optional<ExceptionResponse> errors = validate(participantDto, takenEmails);
+            if (errors.isPresent()) {
+                invalidParticipants.add(new RegisterParticipantToItsValidationExceptions(participantDto, errors.get()));
+                log.debug("failed to register {}, {}", participantDto, errors.get());
+            } else {
+                takenEmails.add(participantDto.getEmail());
+                validParticipants.add(participantMapper.toEntity(participantDto));
+            }
+        }
+        List<Participant> saved = participantRepository.saveAll(validParticipants);
+        flushOrThrowIfEmailTaken(null);
+        for (Participant participant : saved) {
+            participantCache.evict(participant.getId(), participant.getEmail());
+            sendNewUserEmailNotificationToAdmin(participant);
+        }
+        log.debug("registered {} participants, declined {}", saved.size(), invalidParticipants.size());
+        return new ParticipantRegistrationResultDto(saved.size(), invalidParticipants.size(), invalidParticipants);
+    }
+
+    private void validateBulkSize(int size) {
+        if (size > bulkMaxSize) {
+            IllegalArgumentException ex = new IllegalArgumentException(
+                    "participants: must contain at most %s elements".formatted(bulkMaxSize));
+            log.debug("validateBulkSize()", ex);
+            throw ex;
+        }
+    }
+
+    private Set<String> findTakenEmails(List<RegisterParticipantDto> participantDtos) {
+        Set<String> emails = participantDtos.stream()
+                .map(RegisterParticipantDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (emails.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(participantRepository.findTakenEmails(emails));
+    }
+
+    private Optional<ExceptionResponse> validate(RegisterParticipantDto participantDto, Set<String> takenEmails) {
+        Set<ConstraintViolation<RegisterParticipantDto>> violations = validator.validate(participantDto);
+        if (!violations.isEmpty()) {
+            return Optional.of(toExceptionResponse(new ConstraintViolationException(violations).getMessage()));
+        }
+        if (takenEmails.contains(participantDto.getEmail())) {
+            return Optional.of(toExceptionResponse(
+                    "Email %s is already taken.".formatted(participantDto.getEmail())
+            ));
+        }
+        return Optional.empty();
+    }
+
+    private ExceptionResponse toExceptionResponse(String message) {
+        return ExceptionResponse.builder()
+                .withHttpStatus(HttpStatus.BAD_REQUEST)
+                .withDate(dateTimeService.utcNow())
+                .withMessage(message)
                 .build();
-        kafkaOperations.send(message);
     }
 
-    private void throwIfEmailTaken(String email) {
-        participantRepository.findByEmail(email).ifPresent(ignored -> {
-            IllegalArgumentException ex = new IllegalArgumentException("Email %s is already taken.".formatted(email));
-            log.debug("throwIfEmailTaken()", ex);
+    private void sendNewUserEmailNotificationToAdmin(Participant newUser) {
+        emailOutbox.enqueue(
+                simpleEmailTopic,
+                newUser.getId().toString(),
+                new SimpleEmailDto("no.reply.new.account.notification@gmail.com",
+                        List.of(newUser.getEmail()),
+                        "New user notification",
+                        "You were registered at our site! Link to site ....",
+                        Date.from(dateTimeService.instantUtcNow()))
+        );
+    }
+
+    /**
+     * Writes pending changes, email uniqueness is guarded only by unique constraint,
+     * so it stays correct for concurrent writes and costs no extra query.
+     * @param email email to be reported as taken, null if several emails were written
+     * @throws IllegalArgumentException written email is already taken
+     */
+    private void flushOrThrowIfEmailTaken(@Nullable String email) {
+        try {
+            participantRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailUniqueViolation(e)) {
+                throw e;
+            }
+            IllegalArgumentException ex = new IllegalArgumentException(email == null ?
+                    "Some of given emails are already taken." :
+                    "Email %s is already taken.".formatted(email), e);
+            log.debug("flushOrThrowIfEmailTaken()", ex);
             throw ex;
-        });
+        }
+    }
+
+    private static boolean isEmailUniqueViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof org.hibernate.exception.ConstraintViolationException violation
+               && violation.getConstraintName() != null
+               && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Participant.EMAIL_UNIQUE_CONSTRAINT);
     }
 
     @Override
@@ -99,26 +303,33 @@ public class ParticipantServiceImpl implements ParticipantService {
                     return ex;
                 }
         );
+        participantCache.evict(participant.getId(), participant.getEmail());
+        listCache.participantsChanged();
         if (participantDto.getEmail() != null) {
-            throwIfEmailTaken(participantDto.getEmail());
             participant.setEmail(participantDto.getEmail());
         }
         if (participantDto.getFullName() != null) {
             participant.setFullName(participantDto.getFullName());
         }
+        flushOrThrowIfEmailTaken(participant.getEmail());
         log.debug("updated participant {}", participant);
     }
 
     @Override
     public void deleteParticipant(@NotNull UUID id) {
         log.debug("deleting participant with id {}", id);
-        participantRepository.deleteById(id);
+        participantRepository.findById(id).ifPresent(participant -> {
+            participantRepository.delete(participant);
+            participantCache.evict(participant.getId(), participant.getEmail());
+            listCache.participantsChanged();
+        });
     }
 
     @Override
+    @ReadOnlyTransactional
     public GetParticipantDto getById(@NotNull UUID id) {
-        return modelMapper.map(participantRepository.findById(id).orElseThrow(
+        return participantCache.findById(id).orElseThrow(
                 () -> new IllegalArgumentException("Participant with id '%s' not found".formatted(id))
-        ), GetParticipantDto.class);
+        );
     }
 }
@@ -0,0 +1,57 @@
+package org.example.task2restapi.specification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.example.task2restapi.dto.GetExecutionFactDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of last returned fact in (finish time, id) order, used for keyset pagination.
+ * It is passed to clients as opaque continuation token.
+ */
+@Data
+@AllArgsConstructor
+public class ExecutionFactCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Null if last returned fact does not have finish time.
+     */
+    private LocalDateTime finishTime;
+
+    private UUID id;
+
+    public static ExecutionFactCursor of(GetExecutionFactDto fact) {
+        return new ExecutionFactCursor(fact.getFinishTime(), fact.getId());
+    }
+
+    /**
+     * @param token continuation token created by encode()
+     * @return decoded cursor
+     * @throws IllegalArgumentException given token is malformed
+     */
+    public static ExecutionFactCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            String finishTime = decoded.substring(0, separatorIndex);
+            return new ExecutionFactCursor(
+                    finishTime.isEmpty() ? null : LocalDateTime.parse(finishTime),
+                    UUID.fromString(decoded.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("continuationToken: is malformed", e);
+        }
+    }
+
+    public String encode() {
+        String raw = (finishTime == null ? "" : finishTime.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -1,18 +1,32 @@
 package org.example.task2restapi.specification;
 
+import jakarta.annotation.Nullable;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.extern.slf4j.Slf4j;
 import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
-import org.example.task2restapi.entity.ExecutionFact;
-import org.example.task2restapi.entity.ExecutionFact_;
+import org.example.task2restapi.entity.AbstractExecutionFact;
+import org.example.task2restapi.entity.AbstractExecutionFact_;
+import org.example.task2restapi.entity.ExecutionFactDailyStats;
+import org.example.task2restapi.entity.ExecutionFactDailyStats_;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram;
+import org.example.task2restapi.entity.ExecutionFactDurationHistogram_;
 import org.example.task2restapi.entity.Participant;
 import org.example.task2restapi.entity.Participant_;
+import org.hibernate.query.sqm.NodeBuilder;
+import org.hibernate.query.sqm.tree.expression.SqmExpression;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+
 /**
  * This class allows to create dynamic queries for ExecutionFact search.
  */
@@ -22,9 +36,9 @@ public class ExecutionFactSpecs {
 
     /**
      * @param optionsDto filter
-     * @return specification that represents given filter
+     * @return specification that represents given filter, applicable to hot, archived or all facts
      */
-    public Specification<ExecutionFact> byFilterDto(ExecutionFactFilterOptionsDto optionsDto) {
+    public <T extends AbstractExecutionFact> Specification<T> byFilterDto(ExecutionFactFilterOptionsDto optionsDto) {
         log.debug("generating specification for ExecutionFactFilterOptionsDto {}", optionsDto);
         return (root, query, builder) -> {
             Predicate resultQuery = builder.conjunction();
@@ -35,16 +49,128 @@ public class ExecutionFactSpecs {
         };
     }
 
-    private Predicate addFinishTimeCriteria(ExecutionFactFilterOptionsDto optionsDto,
-                                                   Root<ExecutionFact> root,
-                                                   CriteriaBuilder builder,
-                                                   Predicate resultQuery) {
+    /**
+     * Finish time range is applied with day precision, description is not supported by statistics.
+     * @param optionsDto filter
+     * @return specification of daily statistics rows that represents given filter
+     */
+    public Specification<ExecutionFactDailyStats> statsByFilterDto(ExecutionFactFilterOptionsDto optionsDto) {
+        log.debug("generating statistics specification for ExecutionFactFilterOptionsDto {}", optionsDto);
+        return (root, query, builder) -> {
+            Predicate resultQuery = builder.conjunction();
+            if (optionsDto.getExecutorEmail() != null) {
+                resultQuery = builder.and(
+                        resultQuery,
+                        builder.equal(getOrCreateStatsExecutorJoin(root).get(Participant_.email), optionsDto.getExecutorEmail())
+                );
+            }
+            if (optionsDto.getFromFinishTime() != null && optionsDto.getToFinishTime() != null) {
+                resultQuery = builder.and(
+                        resultQuery,
+                        builder.between(
+                                root.get(ExecutionFactDailyStats_.finishDay),
+                                optionsDto.getFromFinishTime().toLocalDate(),
+                                optionsDto.getToFinishTime().toLocalDate()
+                        )
+                );
+            }
+            if (!Boolean.TRUE.equals(optionsDto.getIncludeArchived())) {
+                resultQuery = builder.and(resultQuery, builder.isFalse(root.get(ExecutionFactDailyStats_.archived)));
+            }
+            return resultQuery;
+        };
+    }
+
+    /**
+     * Finish time range is applied with hour precision, description is not supported by histograms.
+     * @param optionsDto filter
+     * @return specification of hourly duration histograms that represents given filter
+     */
+    public Specification<ExecutionFactDurationHistogram> histogramByFilterDto(ExecutionFactFilterOptionsDto optionsDto) {
+        log.debug("generating histogram specification for ExecutionFactFilterOptionsDto {}", optionsDto);
+        return (root, query, builder) -> {
+            Predicate resultQuery = builder.conjunction();
+            if (optionsDto.getExecutorEmail() != null) {
+                resultQuery = builder.and(
+                        resultQuery,
+                        builder.equal(getOrCreateHistogramExecutorJoin(root).get(Participant_.email), optionsDto.getExecutorEmail())
+                );
+            }
+            if (optionsDto.getFromFinishTime() != null && optionsDto.getToFinishTime() != null) {
+                resultQuery = builder.and(
+                        resultQuery,
+                        builder.between(
+                                root.get(ExecutionFactDurationHistogram_.finishHour),
+                                optionsDto.getFromFinishTime().truncatedTo(ChronoUnit.HOURS),
+                                optionsDto.getToFinishTime()
+                        )
+                );
+            }
+            if (!Boolean.TRUE.equals(optionsDto.getIncludeArchived())) {
+                resultQuery = builder.and(resultQuery, builder.isFalse(root.get(ExecutionFactDurationHistogram_.archived)));
+            }
+            return resultQuery;
+        };
+    }
+
+    /**
+     * First segment of (finish time, id) order. Cursor position is compared as row value,
+     * so it is used as start of index range instead of filter applied to every preceding row.
+     * @param cursor position of last fact client already has, null or positioned in this segment
+     * @return specification of facts with finish time that follow given cursor
+     */
+    public <T extends AbstractExecutionFact> Specification<T> finishedAfter(@Nullable ExecutionFactCursor cursor) {
+        log.debug("generating specification for finished facts after {}", cursor);
+        return (root, query, builder) -> {
+            Path<LocalDateTime> finishTime = root.get(AbstractExecutionFact_.finishTime);
+            if (cursor == null) {
+                return builder.isNotNull(finishTime);
+            }
+            NodeBuilder nodeBuilder = (NodeBuilder) builder;
+            return nodeBuilder.greaterThan(
+                    rowValue(nodeBuilder, finishTime, root.get(AbstractExecutionFact_.id)),
+                    rowValue(nodeBuilder, nodeBuilder.value(cursor.getFinishTime()), nodeBuilder.value(cursor.getId()))
+            );
+        };
+    }
+
+    /**
+     * Second segment of (finish time, id) order, facts without finish time follow all facts that have it.
+     * @param afterId id of last fact client already has if it is in this segment, null to start segment
+     * @return specification of facts without finish time that follow given id
+     */
+    public <T extends AbstractExecutionFact> Specification<T> unfinishedAfter(@Nullable UUID afterId) {
+        log.debug("generating specification for unfinished facts after {}", afterId);
+        return (root, query, builder) -> {
+            Predicate unfinished = builder.isNull(root.get(AbstractExecutionFact_.finishTime));
+            if (afterId == null) {
+                return unfinished;
+            }
+            return builder.and(unfinished, builder.greaterThan(root.get(AbstractExecutionFact_.id), afterId));
+        };
+    }
+
+    /**
+     * Row values are compared component by component, their java type is irrelevant.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<Comparable> rowValue(NodeBuilder builder, Expression<?>... components) {
+        SqmExpression<?>[] expressions = Arrays.stream(components)
+                .map(component -> (SqmExpression<?>) component)
+                .toArray(SqmExpression[]::new);
+        return (Expression) builder.tuple(Object[].class, expressions);
+    }
+
+    private <T extends AbstractExecutionFact> Predicate addFinishTimeCriteria(ExecutionFactFilterOptionsDto optionsDto,
+                                                                              Root<T> root,
+                                                                              CriteriaBuilder builder,
+                                                                              Predicate resultQuery) {
         if(optionsDto.getFromFinishTime() != null && optionsDto.getToFinishTime() != null) {
             resultQuery = builder.and(
                     resultQuery,
                     builder.and(
-                            builder.greaterThanOrEqualTo(root.get(ExecutionFact_.finishTime), optionsDto.getFromFinishTime()),
-                            builder.lessThanOrEqualTo(root.get(ExecutionFact_.finishTime), optionsDto.getToFinishTime())
+                            builder.greaterThanOrEqualTo(root.get(AbstractExecutionFact_.finishTime), optionsDto.getFromFinishTime()),
+                            builder.lessThanOrEqualTo(root.get(AbstractExecutionFact_.finishTime), optionsDto.getToFinishTime())
                     )
             );
             log.debug("added finish time criteria");
@@ -52,26 +178,26 @@ public class ExecutionFactSpecs {
         return resultQuery;
     }
 
-    private Predicate addDescriptionCriteria(ExecutionFactFilterOptionsDto optionsDto,
-                                                    Root<ExecutionFact> root,
-                                                    CriteriaBuilder builder,
-                                                    Predicate resultQuery) {
+    private <T extends AbstractExecutionFact> Predicate addDescriptionCriteria(ExecutionFactFilterOptionsDto optionsDto,
+                                                                               Root<T> root,
+                                                                               CriteriaBuilder builder,
+                                                                               Predicate resultQuery) {
         if(optionsDto.getDescription() != null) {
             resultQuery = builder.and(
                     resultQuery,
-                    builder.equal(root.get(ExecutionFact_.description), optionsDto.getDescription())
+                    builder.equal(root.get(AbstractExecutionFact_.description), optionsDto.getDescription())
             );
             log.debug("added description criteria");
         }
         return resultQuery;
     }
 
-    private Predicate addEmailCriteria(ExecutionFactFilterOptionsDto optionsDto,
-                                              Root<ExecutionFact> root,
-                                              CriteriaBuilder builder,
-                                              Predicate resultQuery) {
+    private <T extends AbstractExecutionFact> Predicate addEmailCriteria(ExecutionFactFilterOptionsDto optionsDto,
+                                                                         Root<T> root,
+                                                                         CriteriaBuilder builder,
+                                                                         Predicate resultQuery) {
         if(optionsDto.getExecutorEmail() != null) {
-            Join<ExecutionFact, Participant> join = root.join(ExecutionFact_.executor);
+            Join<T, Participant> join = getOrCreateExecutorJoin(root);
             resultQuery = builder.and(
                     resultQuery,
                     builder.equal(join.get(Participant_.email), optionsDto.getExecutorEmail())
@@ -81,4 +207,35 @@ public class ExecutionFactSpecs {
         return resultQuery;
     }
 
+    /**
+     * Reuses executor join if query already has one (e.g. for projection), so executor table is joined only once.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends AbstractExecutionFact> Join<T, Participant> getOrCreateExecutorJoin(Root<T> root) {
+        return root.getJoins().stream()
+                .filter(join -> AbstractExecutionFact_.executor.equals(join.getAttribute()))
+                .map(join -> (Join<T, Participant>) join)
+                .findFirst()
+                .orElseGet(() -> root.join(AbstractExecutionFact_.executor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Join<ExecutionFactDailyStats, Participant> getOrCreateStatsExecutorJoin(Root<ExecutionFactDailyStats> root) {
+        return root.getJoins().stream()
+                .filter(join -> ExecutionFactDailyStats_.executor.equals(join.getAttribute()))
+                .map(join -> (Join<ExecutionFactDailyStats, Participant>) join)
+                .findFirst()
+                .orElseGet(() -> root.join(ExecutionFactDailyStats_.executor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Join<ExecutionFactDurationHistogram, Participant> getOrCreateHistogramExecutorJoin(
+            Root<ExecutionFactDurationHistogram> root) {
+        return root.getJoins().stream()
+                .filter(join -> ExecutionFactDurationHistogram_.executor.equals(join.getAttribute()))
+                .map(join -> (Join<ExecutionFactDurationHistogram, Participant>) join)
+                .findFirst()
+                .orElseGet(() -> root.join(ExecutionFactDurationHistogram_.executor));
+    }
+
 }
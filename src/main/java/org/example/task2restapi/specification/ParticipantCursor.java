@@ -0,0 +1,42 @@
+package org.example.task2restapi.specification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.example.task2restapi.dto.GetParticipantDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after last returned participant, participants are paged by id.
+ */
+@Data
+@AllArgsConstructor
+public class ParticipantCursor {
+
+    private UUID id;
+
+    public static ParticipantCursor of(GetParticipantDto participant) {
+        return new ParticipantCursor(participant.getId());
+    }
+
+    /**
+     * @param token continuation token created by encode()
+     * @return decoded cursor
+     * @throws IllegalArgumentException given token is malformed
+     */
+    public static ParticipantCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new ParticipantCursor(UUID.fromString(decoded));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("continuationToken: is malformed", e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,163 @@
+package org.example.task2restapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.example.task2restapi.Task2RestApiApplication;
+import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.GetExecutionFactDto;
+import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
+import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.GetParticipantsPageDto;
+import org.example.task2restapi.dto.RegisterParticipantDto;
+import org.example.task2restapi.service.impl.ParticipantCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+        classes = {Task2RestApiApplication.class, ReplicaTestDbConfig.class}
+)
+@TestPropertySource(properties = {
+        """
+        spring.liquibase.contexts=none
+        configuration.scheduling.enabled=false
+        spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1
+        configuration.datasource.replica.enabled=true
+        configuration.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1
+        """
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    JdbcTemplate primary;
+
+    JdbcTemplate replica;
+
+    @BeforeEach
+    void initDb() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate db : new JdbcTemplate[]{primary, replica}) {
+            db.update("delete from email_outbox");
+            db.update("delete from execution_facts");
+            db.update("delete from participants");
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @SneakyThrows
+    void findPage_shouldReadParticipantsFromReplica() {
+        //given
+        UUID id = UUID.randomUUID();
+        replica.update("insert into participants (id, full_name, email, version) values (?, ?, ?, 0)",
+                id, "Replica Only", "replica@gmail.com");
+        //when
+        String resultJson = mockMvc.perform(
+                        get("/api/v1/participants").param("paginationMode", "KEYSET"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetParticipantsPageDto result = objectMapper.readValue(resultJson, GetParticipantsPageDto.class);
+        assertEquals(List.of("Replica Only"),
+                result.getParticipants().stream().map(GetParticipantDto::getFullName).toList());
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldCacheParticipantReadFromPrimary_ifReplicaLagsBehind() {
+        //given
+        UUID id = UUID.randomUUID();
+        primary.update("insert into participants (id, full_name, email, version) values (?, ?, ?, 1)",
+                id, "Updated", "test@gmail.com");
+        replica.update("insert into participants (id, full_name, email, version) values (?, ?, ?, 0)",
+                id, "Stale", "test@gmail.com");
+        //when
+        String resultJson = mockMvc.perform(
+                        get("/api/v1/participants/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetParticipantDto result = objectMapper.readValue(resultJson, GetParticipantDto.class);
+        assertEquals("Updated", result.getFullName());
+        assertEquals("Updated", cacheManager.getCache(ParticipantCache.PARTICIPANTS_BY_ID)
+                .get(id, GetParticipantDto.class).getFullName());
+    }
+
+    @Test
+    @SneakyThrows
+    void findAll_shouldCachePageReadFromPrimary_ifReplicaLagsBehind() {
+        //given
+        UUID executorId = UUID.randomUUID();
+        for (JdbcTemplate db : new JdbcTemplate[]{primary, replica}) {
+            db.update("insert into participants (id, full_name, email, version) values (?, ?, ?, 0)",
+                    executorId, "Test", "test@gmail.com");
+        }
+        UUID factId = UUID.randomUUID();
+        primary.update("insert into execution_facts (id, start_time, finish_time, executor_id, description, version) " +
+                       "values (?, ?, ?, ?, ?, 0)",
+                factId, LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2000, 1, 1, 0, 10), executorId, "a");
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ExecutionFactFilterOptionsDto())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetFilteredExecutionFactsDto result = objectMapper.readValue(resultJson, GetFilteredExecutionFactsDto.class);
+        assertEquals(List.of(factId), result.getExecutionFacts().stream().map(GetExecutionFactDto::getId).toList());
+    }
+
+    @Test
+    @SneakyThrows
+    void register_shouldWriteParticipantToPrimary() {
+        //given
+        RegisterParticipantDto participantDto = new RegisterParticipantDto("Primary Only", "primary@gmail.com");
+        //when
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(participantDto)))
+                .andExpect(status().isCreated());
+        //then
+        assertEquals(1, primary.queryForObject("select count(*) from participants", Integer.class));
+        assertEquals(0, replica.queryForObject("select count(*) from participants", Integer.class));
+    }
+
+}
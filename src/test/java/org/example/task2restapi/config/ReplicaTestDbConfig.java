@@ -0,0 +1,36 @@
+package org.example.task2restapi.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates same schema in primary and replica databases, which are configured by properties of test.
+ */
+@TestConfiguration
+public class ReplicaTestDbConfig {
+
+    private static final String CHANGE_LOG = "classpath:db/changelog/db.changelog-master.yaml";
+
+    @Bean
+    public SpringLiquibase primaryLiquibase(@Qualifier("primaryDataSource") DataSource dataSource) {
+        return liquibase(dataSource);
+    }
+
+    @Bean
+    public SpringLiquibase replicaLiquibase(@Qualifier("replicaDataSource") DataSource dataSource) {
+        return liquibase(dataSource);
+    }
+
+    private static SpringLiquibase liquibase(DataSource dataSource) {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(CHANGE_LOG);
+        liquibase.setContexts("none");
+        return liquibase;
+    }
+
+}
@@ -2,6 +2,8 @@ package org.example.task2restapi.config;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
@@ -11,11 +13,16 @@ import java.util.Properties;
 @TestConfiguration
 public class TestDbConfig {
 
+    /**
+     * Nulls are ordered as in PostgreSQL, so plans of queries with "nulls last" order match production ones.
+     */
     @Bean
     public DataSource dataSource() {
-        return new EmbeddedDatabaseBuilder()
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
                 .setType(EmbeddedDatabaseType.H2)
                 .build();
+        new JdbcTemplate(database).execute("SET DEFAULT_NULL_ORDERING HIGH");
+        return database;
     }
 
     @Bean("hibernateProperties")
@@ -2,23 +2,53 @@ package org.example.task2restapi.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.SneakyThrows;
 import org.example.task2restapi.Task2RestApiApplication;
 import org.example.task2restapi.config.TestDbConfig;
+import org.example.task2restapi.dto.BulkUpdateExecutionFactsDto;
+import org.example.task2restapi.dto.DurationPercentileDto;
+import org.example.task2restapi.dto.ExecutionFactBulkResultDto;
+import org.example.task2restapi.dto.ExecutionFactDurationPercentilesDto;
 import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.ExecutionFactStatsDto;
+import org.example.task2restapi.dto.ExecutionFactUploadFailureDto;
+import org.example.task2restapi.dto.ExecutionFactUploadJobDto;
+import org.example.task2restapi.dto.ExecutionFactUploadProgressDto;
 import org.example.task2restapi.dto.ExecutionFactUploadResultDto;
 import org.example.task2restapi.dto.GetDetailedExecutionFactDto;
 import org.example.task2restapi.dto.GetExecutionFactDto;
+import org.example.task2restapi.dto.GetExecutionFactDurationPercentilesDto;
+import org.example.task2restapi.dto.GetExecutionFactStatsDto;
 import org.example.task2restapi.dto.GetFilteredExecutionFactsDto;
 import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.PaginationMode;
 import org.example.task2restapi.dto.RecordExecutionFactDto;
 import org.example.task2restapi.dto.RecordFactToItsValidationExceptions;
 import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.dto.UploadJobStatus;
+import org.example.task2restapi.entity.ArchivedExecutionFact;
 import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.ExecutionFactDailyStats;
+import org.example.task2restapi.entity.ExecutionFactStatsRefresh;
 import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.repository.ArchivedExecutionFactRepository;
+import org.example.task2restapi.repository.ExecutionFactDailyStatsRepository;
 import org.example.task2restapi.repository.ExecutionFactRepository;
+import org.example.task2restapi.repository.ExecutionFactStatsChangeRepository;
+import org.example.task2restapi.repository.ExecutionFactStatsRefreshRepository;
 import org.example.task2restapi.repository.ParticipantRepository;
 import org.example.task2restapi.service.DateTimeService;
+import org.example.task2restapi.service.impl.ExecutionFactArchiver;
+import org.example.task2restapi.service.impl.ExecutionFactBatchImporter;
+import org.example.task2restapi.service.impl.ExecutionFactListCache;
+import org.example.task2restapi.service.impl.ExecutionFactPartitionMaintainer;
+import org.example.task2restapi.service.impl.ExecutionFactStatsRefresher;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,27 +56,56 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
@@ -61,6 +120,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestPropertySource(properties = {
         """
         spring.liquibase.contexts=none
+        configuration.scheduling.enabled=false
+        spring.jpa.properties.hibernate.generate_statistics=true
+        configuration.endpoints.execution-fact._bulk.chunk-size=3
+        configuration.retention.execution-fact.batch-size=3
+        configuration.endpoints.execution-fact.upload.batch-size=50
         """
 })
 @AutoConfigureMockMvc
@@ -81,10 +145,56 @@ class ExecutionFactControllerTest {
     @SpyBean
     DateTimeService timeService;
 
+    @SpyBean
+    ExecutionFactBatchImporter batchImporter;
+
+    @SpyBean
+    ExecutionFactListCache listCache;
+
+    @SpyBean(name = "executionFactUploadExecutor")
+    ThreadPoolTaskExecutor uploadExecutor;
+
+    @Autowired
+    @Qualifier("executionFactsUploadSpoolDirectory")
+    Path uploadSpoolDirectory;
+
     @Autowired
     @Qualifier("executionFactsMaxPageSize")
     Integer executionFactsMaxPageSize;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    ExecutionFactArchiver archiver;
+
+    @Autowired
+    ArchivedExecutionFactRepository archivedFactRepository;
+
+    @Autowired
+    ExecutionFactPartitionMaintainer partitionMaintainer;
+
+    @Autowired
+    ExecutionFactStatsRefresher statsRefresher;
+
+    @Autowired
+    ExecutionFactDailyStatsRepository dailyStatsRepository;
+
+    @Autowired
+    ExecutionFactStatsRefreshRepository statsRefreshRepository;
+
+    @Autowired
+    ExecutionFactStatsChangeRepository statsChangeRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     List<Participant> initialParticipants = List.of(
             Participant.builder()
                     .withFullName("Test 1")
@@ -99,8 +209,14 @@ class ExecutionFactControllerTest {
     @BeforeEach
     void initDb() {
         executionFactRepository.deleteAll();
+        archivedFactRepository.deleteAll();
         participantRepository.deleteAll();
         initialParticipants = participantRepository.saveAllAndFlush(initialParticipants);
+        List<ExecutionFactStatsRefresh> statsRefreshes = statsRefreshRepository.findAll();
+        statsRefreshes.forEach(refresh -> refresh.setRefreshedAt(null));
+        statsRefreshRepository.saveAll(statsRefreshes);
+        statsChangeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         reset(participantRepository, executionFactRepository);
     }
 
@@ -152,6 +268,61 @@ class ExecutionFactControllerTest {
         assertEquals(executionFactDto.getFinishTime(), fromDb.getFinishTime());
     }
 
+    @SneakyThrows
+    @Test
+    void recordExecutionFact_shouldAssignTimeOrderedUuidV7Ids() {
+        //given
+        RecordExecutionFactDto executionFactDto = RecordExecutionFactDto.builder()
+                .withExecutorId(initialParticipants.get(0).getId())
+                .withDescription("description")
+                .build();
+        List<UUID> ids = new ArrayList<>();
+        //when
+        for (int i = 0; i < 3; i++) {
+            String result = mockMvc.perform(
+                            post("/api/v1/execution-facts")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(executionFactDto)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(UUID.fromString(objectMapper.readValue(result, Map.class).get("id").toString()));
+        }
+        //then
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(7, ids.get(i).version(), "id must be UUID version 7");
+            assertEquals(2, ids.get(i).variant(), "id must have RFC 9562 variant");
+            if (i > 0) {
+                assertTrue(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(),
+                                ids.get(i).getMostSignificantBits()) < 0,
+                        "ids must grow in generation order");
+            }
+        }
+        assertTrue(initialParticipants.stream().allMatch(participant -> participant.getId().version() == 7),
+                "participant ids must be UUID version 7");
+    }
+
+    @SneakyThrows
+    @Test
+    void recordExecutionFact_shouldLookUpExecutorOnce_ifSameExecutorRecordsSeveralFacts() {
+        //given
+        UUID participantId = initialParticipants.get(0).getId();
+        RecordExecutionFactDto executionFactDto = RecordExecutionFactDto.builder()
+                .withExecutorId(participantId)
+                .withDescription("description")
+                .build();
+        //when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(
+                            post("/api/v1/execution-facts")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(executionFactDto)))
+                    .andExpect(status().isCreated());
+        }
+        //then
+        assertEquals(3, executionFactRepository.count(), "all facts must be saved");
+        verify(participantRepository, times(1)).findById(participantId);
+    }
+
     @SneakyThrows
     @Test
     void recordExecutionFact_shouldSaveWithDefaultStartTime_ifNoneWasPresentInRecordDTO() {
@@ -271,6 +442,8 @@ class ExecutionFactControllerTest {
     void getById_shouldReturnDetailedExecutionFactDto_ifThereIsAnyWithGivenId() {
         //given
         ExecutionFact expectedExecutionFact = saveAndGetStandardExecutionFactFromDb();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
         //when
         String result = mockMvc.perform(
                         get("/api/v1/execution-facts/" + expectedExecutionFact.getId()))
@@ -289,6 +462,60 @@ class ExecutionFactControllerTest {
         GetParticipantDto getParticipantDto = dto.getExecutor();
         assertEquals(expectedExecutor.getEmail(), getParticipantDto.getEmail());
         assertEquals(expectedExecutor.getFullName(), getParticipantDto.getFullName());
+        assertEquals(1, statistics.getPrepareStatementCount(), "fact with executor must be selected in one statement");
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldReturnNotModifiedFromCache_ifIfNoneMatchIsCurrentETag() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag, "ETag must be returned");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        //when
+        String result = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertTrue(result.isEmpty(), "304 must not have body");
+        assertEquals(1, statistics.getPrepareStatementCount(), "only versions must be selected");
+        verify(executionFactRepository, times(1)).findWithExecutorById(saved.getId());
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldReturnChangedFactWithNewETag_ifFactWasUpdatedAfterItWasCached() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        UpdateExecutionFactDto factDto = new UpdateExecutionFactDto();
+        factDto.setDescription("changed");
+        mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(factDto)))
+                .andExpect(status().isOk());
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        //then
+        assertNotEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+        GetDetailedExecutionFactDto dto = objectMapper.readValue(
+                response.getContentAsString(), GetDetailedExecutionFactDto.class);
+        assertEquals("changed", dto.getDescription());
     }
 
     @Test
@@ -389,6 +616,188 @@ class ExecutionFactControllerTest {
         assertEquals(saved.getExecutor().getId(), updated.getExecutor().getId());
     }
 
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldUpdateWithSingleStatement_ifIfMatchIsCurrentETag() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        UpdateExecutionFactDto updateDto = new UpdateExecutionFactDto(null, null, "changed", null);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        //when
+        mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+        //then
+        assertEquals(1, statistics.getPrepareStatementCount(), "fact must be updated without selects");
+        ExecutionFact updated = executionFactRepository.findById(saved.getId()).get();
+        assertEquals("changed", updated.getDescription());
+        assertEquals(saved.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldReturnPreconditionFailed_ifIfMatchIsStaleETag() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(null, null, "first", null))))
+                .andExpect(status().isOk());
+        //when
+        String result = mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(null, null, "second", null))))
+                .andExpect(status().isPreconditionFailed())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = objectMapper.readValue(result, ExceptionResponse.class);
+        assertTrue(exceptions.getMessage().contains("is not of version"), "Should contain version mismatch message.");
+        assertEquals("first", executionFactRepository.findById(saved.getId()).get().getDescription());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldUpdate_ifAnyStrongETagInIfMatchListIsCurrent() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        //when
+        mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"100.100\", malformed, W/%s , %s".formatted(eTag, eTag))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(null, null, "changed", null))))
+                .andExpect(status().isOk());
+        //then
+        assertEquals("changed", executionFactRepository.findById(saved.getId()).get().getDescription());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldReturnPreconditionFailed_ifIfMatchHasOnlyWeakCurrentETag() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        //when
+        mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"100.100\", W/" + eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(null, null, "changed", null))))
+                .andExpect(status().isPreconditionFailed());
+        //then
+        assertEquals(saved.getDescription(), executionFactRepository.findById(saved.getId()).get().getDescription());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldUpdateAnyVersion_ifIfMatchIsWildcard() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        //when
+        mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, "*")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(null, null, "changed", null))))
+                .andExpect(status().isOk());
+        //then
+        assertEquals("changed", executionFactRepository.findById(saved.getId()).get().getDescription());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldReturnPreconditionFailed_ifFactWasChangedBetweenUpdateAndItsCheck() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        doReturn(0).when(executionFactRepository).updateIfCurrent(any(), any(), any());
+        //when
+        String result = mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(null, saved.getFinishTime(), null, null))))
+                .andExpect(status().isPreconditionFailed())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = objectMapper.readValue(result, ExceptionResponse.class);
+        assertTrue(exceptions.getMessage().contains("was changed concurrently"),
+                "valid times must not be reported as invalid");
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldReturnNotFound_ifFactWasDeletedBeforeItsETagWasChecked() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(
+                        get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        executionFactRepository.deleteById(saved.getId());
+        //when
+        String result = mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new UpdateExecutionFactDto(saved.getFinishTime().plusDays(1), null, null, null))))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = objectMapper.readValue(result, ExceptionResponse.class);
+        assertTrue(exceptions.getMessage().contains("Execution fact with id '%s' not found".formatted(saved.getId())));
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldReturnExceptionResponse_ifNewFinishTimeIsBeforeCurrentStartTime() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        UpdateExecutionFactDto updateDto = new UpdateExecutionFactDto(
+                null, saved.getStartTime().minusMinutes(1), null, null
+        );
+        //when
+        String result = mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = objectMapper.readValue(result, ExceptionResponse.class);
+        assertTrue(exceptions.getMessage().contains("startTime is after finishTime"),
+                "Should contain date time range validation message.");
+        assertEquals(saved.getFinishTime(), executionFactRepository.findById(saved.getId()).get().getFinishTime());
+    }
+
     @Test
     @SneakyThrows
     void updateExecutionFact_shouldReturnExceptionResponse_ifGivenNewExecutorIdWasNotfound() {
@@ -521,85 +930,892 @@ class ExecutionFactControllerTest {
         assertEquals(2, actualFacts.getTotalPages(), "should have right amount of total pages");
     }
 
-    private void saveRandomFacts() {
-        String[] characters = new String[]{
-                "a", "b", "c", "d", "e", "f", "g"
-        };
-        List<ExecutionFact> allFacts = IntStream.range(0, 10).mapToObj(
-                num -> saveAndGetExecutionFactFromDb(
-                        num + 1,
-                        initialParticipants.get(num % initialParticipants.size()),
-                        characters[num % characters.length]
-                )
-        ).toList();
-        executionFactRepository.saveAllAndFlush(allFacts);
-    }
-
-    private LocalDateTime findMiddleDateTime(LocalDateTime dateTime1, LocalDateTime dateTime2) {
-        ZoneOffset systemDefaultOffset = OffsetDateTime.now().getOffset();
-        long millis1 = dateTime1.toInstant(systemDefaultOffset).toEpochMilli();
-        long millis2 = dateTime2.toInstant(systemDefaultOffset).toEpochMilli();
-        long middleMillis = (millis1 + millis2) / 2;
-        return LocalDateTime.ofEpochSecond(middleMillis / 1000, 0, systemDefaultOffset);
-    }
-
-    private boolean getDtoEqualsEntity(ExecutionFact entity, GetExecutionFactDto factDto) {
-        return entity.getId().equals(factDto.getId()) &&
-               entity.getExecutor().getId().equals(factDto.getExecutorId()) &&
-               entity.getExecutor().getFullName().equals(factDto.getExecutorFullName()) &&
-               entity.getDescription().equals(factDto.getDescription()) &&
-               entity.getStartTime().equals(factDto.getStartTime()) &&
-               entity.getFinishTime().equals(factDto.getFinishTime());
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldReturnAllFactsPageByPageWithoutCounting_ifKeysetPaginationIsUsed() {
+        //given
+        saveRandomFacts();
+        executionFactRepository.saveAndFlush(ExecutionFact.builder()
+                .withDescription("unfinished")
+                .withExecutor(initialParticipants.get(0))
+                .withStartTime(LocalDateTime.of(2005, 1, 1, 0, 0))
+                .build());
+        Set<UUID> expectedIds = executionFactRepository.findAll().stream()
+                .map(ExecutionFact::getId)
+                .collect(Collectors.toSet());
+        reset(executionFactRepository);
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setPageSize(3);
+        filterOptionsDto.setPaginationMode(PaginationMode.KEYSET);
+        List<UUID> actualIds = new ArrayList<>();
+        //when
+        do {
+            String resultJson = mockMvc.perform(
+                            post("/api/v1/execution-facts/_list")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            GetFilteredExecutionFactsDto page = objectMapper.readValue(resultJson, GetFilteredExecutionFactsDto.class);
+            assertTrue(page.getExecutionFacts().size() <= 3, "page must not exceed page size");
+            assertNull(page.getTotalPages(), "total pages must not be counted unless asked");
+            page.getExecutionFacts().forEach(fact -> actualIds.add(fact.getId()));
+            filterOptionsDto.setContinuationToken(page.getNextContinuationToken());
+        } while (filterOptionsDto.getContinuationToken() != null);
+        //then
+        assertEquals(expectedIds.size(), actualIds.size(), "every fact must be returned exactly once");
+        assertEquals(expectedIds, Set.copyOf(actualIds), "every fact must be returned");
+        verify(executionFactRepository, never()).count(any(), any(Specification.class));
     }
 
     @Test
     @SneakyThrows
-    void getFiltered_shouldReturnExceptionMessageContainingAllValidationErrors_ifGivenInvalidDto() {
+    void getFiltered_shouldReturnTotalPages_ifKeysetPaginationIsUsedAndTotalPagesAreRequested() {
         //given
-        String executorEmail = "bad%email";
-        LocalDateTime fromFinishTime = LocalDateTime.of(2003, 1, 1, 0, 0);
-        LocalDateTime toFinishTime = fromFinishTime.minusMonths(1);
-        String description = String.join("", Collections.nCopies(501, "a"));
-        Integer pageIndex = -1;
-        Integer pageSize = 0;
-        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto(
-                executorEmail, fromFinishTime, toFinishTime, description, pageIndex, pageSize
-        );
+        saveRandomFacts();
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setPageSize(3);
+        filterOptionsDto.setPaginationMode(PaginationMode.KEYSET);
+        filterOptionsDto.setIncludeTotalPages(true);
         //when
         String resultJson = mockMvc.perform(
                         post("/api/v1/execution-facts/_list")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(filterOptionsDto)))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
         //then
-        ExceptionResponse exceptions = assertDoesNotThrow(() -> objectMapper.readValue(resultJson, ExceptionResponse.class), "It should return exceptions");
-        assertTrue(exceptions.getMessage().contains(
-                        "pageSize: must be greater than 0"),
-                "no pageSize message"
-        );
-        assertTrue(exceptions.getMessage().contains(
-                        "factFilterOptionsDto: fromFinishTime is after toFinishTime"),
-                "no range validation message"
-        );
-        assertTrue(exceptions.getMessage().contains(
-                        "description: length must be between 1 and 500"),
-                "no description message"
-        );
-        assertTrue(exceptions.getMessage().contains(
-                        "pageIndex: must be greater than or equal to 0"),
-                "no pageIndex message"
-        );
-        assertTrue(exceptions.getMessage().contains(
-                        "executorEmail: must be a well-formed email address"),
-                "no executorEmail message"
-        );
+        GetFilteredExecutionFactsDto page = objectMapper.readValue(resultJson, GetFilteredExecutionFactsDto.class);
+        assertEquals(4, page.getTotalPages(), "should have right amount of total pages");
+        assertNotNull(page.getNextContinuationToken(), "should have next page");
     }
 
     @Test
     @SneakyThrows
-    void getFiltered_shouldReturnExceptionMessage_ifGivenPageSizeExceedsTheLimit() {
+    void getFiltered_shouldReturnExceptionMessage_ifGivenContinuationTokenIsMalformed() {
+        //given
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setPaginationMode(PaginationMode.KEYSET);
+        filterOptionsDto.setContinuationToken("malformed");
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = assertDoesNotThrow(() -> objectMapper.readValue(resultJson, ExceptionResponse.class), "It should return exceptions");
+        assertEquals("continuationToken: is malformed", exceptions.getMessage());
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldSelectFactsWithTheirExecutorsInSingleStatement() {
+        //given
+        saveRandomFacts();
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setPageSize(executionFactsMaxPageSize);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetFilteredExecutionFactsDto actualFacts = objectMapper.readValue(resultJson, GetFilteredExecutionFactsDto.class);
+        assertEquals(10, actualFacts.getExecutionFacts().size(), "all facts must be returned");
+        assertEquals(1, actualFacts.getTotalPages(), "should have right amount of total pages");
+        assertEquals(1, statistics.getPrepareStatementCount(),
+                "facts with executors must be selected in one statement, count is derived from incomplete page");
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldRecordRequestAndRepositoryTimings() {
+        //given
+        saveRandomFacts();
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        long requestsBefore = timerCount(meterRegistry.find("http.server.requests")
+                .tag("uri", "/api/v1/execution-facts/_list")
+                .tag("status", "200")
+                .timer());
+        long queriesBefore = timerCount(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "ExecutionFactRepository")
+                .tag("method", "findPage")
+                .tag("state", "SUCCESS")
+                .timer());
+        //when
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk());
+        //then
+        Timer requests = meterRegistry.get("http.server.requests")
+                .tag("uri", "/api/v1/execution-facts/_list")
+                .tag("status", "200")
+                .timer();
+        Timer queries = meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "ExecutionFactRepository")
+                .tag("method", "findPage")
+                .tag("state", "SUCCESS")
+                .timer();
+        assertEquals(requestsBefore + 1, requests.count(), "request must be timed");
+        assertEquals(queriesBefore + 1, queries.count(), "repository call must be timed");
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldServeRepeatedFilterFromCache_untilFactsAreChanged() {
+        //given
+        saveRandomFacts();
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setExecutorEmail(initialParticipants.get(0).getEmail());
+        double hitsBefore = cacheGets("hit");
+        String firstJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //when
+        String secondJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals(firstJson, secondJson);
+        verify(executionFactRepository, times(1)).findPage(any(), any(), any());
+        assertEquals(hitsBefore + 1, cacheGets("hit"), "cache hit must be counted");
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldReturnRecordedFact_ifFactWasRecordedAfterFilterWasCached() {
+        //given
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk());
+        RecordExecutionFactDto factDto = new RecordExecutionFactDto(
+                initialParticipants.get(0).getId(), "a", LocalDateTime.of(2000, 1, 1, 0, 0), null
+        );
+        mockMvc.perform(
+                        post("/api/v1/execution-facts")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(factDto)))
+                .andExpect(status().isCreated());
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetFilteredExecutionFactsDto result = objectMapper.readValue(resultJson, GetFilteredExecutionFactsDto.class);
+        assertEquals(1, result.getExecutionFacts().size(), "recorded fact must be listed");
+        verify(executionFactRepository, times(2)).findPage(any(), any(), any());
+    }
+
+    private double cacheGets(String result) {
+        FunctionCounter gets = meterRegistry.find("cache.gets")
+                .tag("cache", ExecutionFactListCache.EXECUTION_FACTS_LIST)
+                .tag("result", result)
+                .functionCounter();
+        return gets == null ? 0 : gets.count();
+    }
+
+    private static long timerCount(Timer timer) {
+        return timer == null ? 0 : timer.count();
+    }
+
+    @SneakyThrows
+    @Test
+    void deleteFiltered_shouldDeleteFactsByFilterInChunks_ifFilterIsGiven() {
+        //given
+        saveRandomFacts();
+        Participant executor = initialParticipants.get(0);
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(executor.getEmail());
+        reset(executionFactRepository);
+        //when
+        String result = mockMvc.perform(
+                        post("/api/v1/execution-facts/_delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals(5L, objectMapper.readValue(result, ExecutionFactBulkResultDto.class).getAffectedCount());
+        List<ExecutionFact> left = executionFactRepository.findAll();
+        assertEquals(5, left.size());
+        assertTrue(left.stream().noneMatch(fact -> fact.getExecutor().getId().equals(executor.getId())));
+        verify(executionFactRepository, times(2)).deleteFirst(any(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getFiltered_shouldNotServePageCachedBeforeCommittedChunk_whileBulkDeleteIsRunning() {
+        //given
+        saveRandomFacts();
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(initialParticipants.get(0).getEmail());
+        assertEquals(5, getFilteredFacts(filter).size(), "page must be cached before bulk delete");
+        List<Integer> listedDuringDelete = new ArrayList<>();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            listedDuringDelete.add(getFilteredFacts(filter).size());
+            return null;
+        }).when(listCache).factsChanged();
+        //when
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isOk());
+        //then
+        assertEquals(List.of(2, 0), listedDuringDelete, "every committed chunk must invalidate cached pages");
+        assertEquals(0, getFilteredFacts(filter).size());
+    }
+
+    @SneakyThrows
+    private List<GetExecutionFactDto> getFilteredFacts(ExecutionFactFilterOptionsDto filter) {
+        String json = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, GetFilteredExecutionFactsDto.class).getExecutionFacts();
+    }
+
+    @SneakyThrows
+    @Test
+    void deleteFiltered_shouldReturnBadRequestAndDeleteNothing_ifFilterIsEmpty() {
+        //given
+        saveRandomFacts();
+        //when
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ExecutionFactFilterOptionsDto())))
+                .andExpect(status().isBadRequest());
+        //then
+        assertEquals(10, executionFactRepository.count());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateFiltered_shouldReassignFactsByFilter_ifExecutorExists() {
+        //given
+        saveRandomFacts();
+        Participant from = initialParticipants.get(0);
+        Participant to = initialParticipants.get(1);
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(from.getEmail());
+        BulkUpdateExecutionFactsDto bulkUpdateDto = new BulkUpdateExecutionFactsDto(filter, to.getId(), "reassigned");
+        //when
+        String result = mockMvc.perform(
+                        post("/api/v1/execution-facts/_update")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(bulkUpdateDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals(5L, objectMapper.readValue(result, ExecutionFactBulkResultDto.class).getAffectedCount());
+        List<ExecutionFact> all = executionFactRepository.findAll();
+        assertTrue(all.stream().allMatch(fact -> fact.getExecutor().getId().equals(to.getId())));
+        assertEquals(5, all.stream().filter(fact -> "reassigned".equals(fact.getDescription())).count());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateFiltered_shouldUpdateFinishedAndUnfinishedFactsChunkByChunk() {
+        //given
+        Participant executor = initialParticipants.get(0);
+        IntStream.range(0, 8).forEach(num -> executionFactRepository.save(ExecutionFact.builder()
+                .withExecutor(executor)
+                .withDescription("description")
+                .withStartTime(LocalDateTime.of(2000, 1, 1, 0, 0))
+                .withFinishTime(num % 2 == 0 ? LocalDateTime.of(2000, 1, 1, 0, 0).plusHours(num) : null)
+                .build()));
+        executionFactRepository.flush();
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(executor.getEmail());
+        BulkUpdateExecutionFactsDto bulkUpdateDto = new BulkUpdateExecutionFactsDto(filter, null, "updated");
+        reset(executionFactRepository);
+        //when
+        String result = mockMvc.perform(
+                        post("/api/v1/execution-facts/_update")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(bulkUpdateDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals(8L, objectMapper.readValue(result, ExecutionFactBulkResultDto.class).getAffectedCount());
+        assertTrue(executionFactRepository.findAll().stream().allMatch(fact -> "updated".equals(fact.getDescription())));
+        // 4 facts of every segment are walked as chunks of 3 and 1
+        verify(executionFactRepository, times(4)).updateByIds(any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateFiltered_shouldReturnBadRequestAndUpdateNothing_ifExecutorDoesNotExist() {
+        //given
+        saveRandomFacts();
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(initialParticipants.get(0).getEmail());
+        BulkUpdateExecutionFactsDto bulkUpdateDto = new BulkUpdateExecutionFactsDto(filter, UUID.randomUUID(), null);
+        //when
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_update")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(bulkUpdateDto)))
+                .andExpect(status().isBadRequest());
+        //then
+        verify(executionFactRepository, never()).updateByIds(any(), any(), any());
+    }
+
+    @Test
+    void archiveExpired_shouldMoveFactsFinishedBeforeRetentionPeriodToArchiveInBatches() {
+        //given
+        saveRandomFacts();
+        LocalDateTime now = LocalDateTime.of(2001, 6, 1, 0, 0);
+        doReturn(now).when(timeService).utcNow();
+        double archivedBefore = meterRegistry.counter("execution_facts.archive.rows").count();
+        long runsBefore = meterRegistry.timer("execution_facts.archive.duration").count();
+        reset(executionFactRepository);
+        //when
+        long archived = archiver.archiveExpired();
+        //then
+        assertEquals(5, archived);
+        List<ArchivedExecutionFact> archivedFacts = archivedFactRepository.findAll();
+        assertEquals(5, archivedFacts.size());
+        assertTrue(archivedFacts.stream().allMatch(fact -> fact.getFinishTime().isBefore(LocalDateTime.of(2000, 6, 1, 0, 0))));
+        assertTrue(archivedFacts.stream().allMatch(fact -> now.equals(fact.getArchivedAt())));
+        assertTrue(executionFactRepository.findAll().stream()
+                .noneMatch(fact -> fact.getFinishTime().isBefore(LocalDateTime.of(2000, 6, 1, 0, 0))));
+        assertEquals(5, executionFactRepository.count());
+        verify(executionFactRepository, times(2)).archiveFinishedBefore(any(), any(), anyInt());
+        assertEquals(archivedBefore + 5, meterRegistry.counter("execution_facts.archive.rows").count());
+        assertEquals(runsBefore + 1, meterRegistry.timer("execution_facts.archive.duration").count());
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldReturnArchivedFact_ifFactWasArchivedAfterItWasCached() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        String eTag = mockMvc.perform(get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        doReturn(LocalDateTime.of(2001, 6, 1, 0, 0)).when(timeService).utcNow();
+        archiver.archiveExpired();
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        //then
+        assertTrue(executionFactRepository.findById(saved.getId()).isEmpty(), "fact must be archived");
+        GetDetailedExecutionFactDto actual =
+                objectMapper.readValue(response.getContentAsString(), GetDetailedExecutionFactDto.class);
+        assertEquals(saved.getId(), actual.getId());
+        assertEquals(saved.getDescription(), actual.getDescription());
+        assertEquals(saved.getExecutor().getId(), actual.getExecutor().getId());
+        assertEquals(eTag, response.getHeader(HttpHeaders.ETAG), "archiving must not change version of fact");
+    }
+
+    @Test
+    @SneakyThrows
+    void updateExecutionFact_shouldReturnConflict_ifFactIsArchived() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        doReturn(LocalDateTime.of(2001, 6, 1, 0, 0)).when(timeService).utcNow();
+        archiver.archiveExpired();
+        UpdateExecutionFactDto updateDto = new UpdateExecutionFactDto(null, null, "changed", null);
+        //when
+        String result = mockMvc.perform(
+                        put("/api/v1/execution-facts/" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals("Execution fact with id '%s' is archived and can not be changed".formatted(saved.getId()),
+                objectMapper.readValue(result, ExceptionResponse.class).getMessage());
+        assertEquals(saved.getDescription(), archivedFactRepository.findById(saved.getId()).get().getDescription());
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteExecutionFact_shouldReturnConflict_ifFactIsArchived() {
+        //given
+        ExecutionFact saved = saveAndGetStandardExecutionFactFromDb();
+        doReturn(LocalDateTime.of(2001, 6, 1, 0, 0)).when(timeService).utcNow();
+        archiver.archiveExpired();
+        //when
+        mockMvc.perform(delete("/api/v1/execution-facts/" + saved.getId()))
+                .andExpect(status().isConflict());
+        //then
+        assertTrue(archivedFactRepository.existsById(saved.getId()), "archived fact must be kept");
+    }
+
+    @Test
+    void createUpcomingPartitions_shouldKeepPlainTable_ifDatabaseIsNotPostgres() {
+        //given
+        saveRandomFacts();
+        //when
+        int created = partitionMaintainer.createUpcomingPartitions();
+        //then
+        assertEquals(0, created);
+        assertEquals(10, executionFactRepository.count());
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldReturnArchivedFacts_onlyIfTheyAreRequested() {
+        //given
+        saveRandomFacts();
+        Set<UUID> allIds = executionFactRepository.findAll().stream()
+                .map(ExecutionFact::getId)
+                .collect(Collectors.toSet());
+        doReturn(LocalDateTime.of(2001, 6, 1, 0, 0)).when(timeService).utcNow();
+        archiver.archiveExpired();
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setPageSize(4);
+        filterOptionsDto.setPaginationMode(PaginationMode.KEYSET);
+        filterOptionsDto.setIncludeTotalPages(true);
+        filterOptionsDto.setIncludeArchived(true);
+        List<GetExecutionFactDto> actual = new ArrayList<>();
+        //when
+        String hotOnlyJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ExecutionFactFilterOptionsDto())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        do {
+            String resultJson = mockMvc.perform(
+                            post("/api/v1/execution-facts/_list")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            GetFilteredExecutionFactsDto page = objectMapper.readValue(resultJson, GetFilteredExecutionFactsDto.class);
+            assertEquals(3, page.getTotalPages(), "archived facts must be counted");
+            actual.addAll(page.getExecutionFacts());
+            filterOptionsDto.setContinuationToken(page.getNextContinuationToken());
+        } while (filterOptionsDto.getContinuationToken() != null);
+        //then
+        GetFilteredExecutionFactsDto hotOnly = objectMapper.readValue(hotOnlyJson, GetFilteredExecutionFactsDto.class);
+        assertEquals(5, hotOnly.getExecutionFacts().size(), "archived facts must not be returned by default");
+        assertEquals(allIds, actual.stream().map(GetExecutionFactDto::getId).collect(Collectors.toSet()));
+        assertEquals(10, actual.size());
+        for (int i = 1; i < actual.size(); i++) {
+            assertTrue(actual.get(i - 1).getFinishTime().isBefore(actual.get(i).getFinishTime()),
+                    "hot and archived facts must be ordered by finish time together");
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void deleteFiltered_shouldReturnBadRequest_ifArchivedFactsAreIncluded() {
+        //given
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(initialParticipants.get(0).getEmail());
+        filter.setIncludeArchived(true);
+        //when
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_delete")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isBadRequest());
+        //then
+        verify(executionFactRepository, never()).deleteFirst(any(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void getStats_shouldReturnCountAndDurationsByExecutorAndBucket_afterRefresh() {
+        //given
+        saveRandomFacts();
+        LocalDateTime refreshedAt = LocalDateTime.of(2001, 1, 1, 0, 0);
+        doReturn(refreshedAt).when(timeService).utcNow();
+        statsRefresher.refresh();
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_stats")
+                                .param("bucket", "YEAR")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ExecutionFactFilterOptionsDto())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetExecutionFactStatsDto result = objectMapper.readValue(resultJson, GetExecutionFactStatsDto.class);
+        assertEquals(refreshedAt, result.getRefreshedAt());
+        assertEquals(2, result.getStats().size());
+        for (Participant participant : initialParticipants) {
+            ExecutionFactStatsDto stats = result.getStats().stream()
+                    .filter(s -> participant.getId().equals(s.getExecutorId()))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("statistics of every executor must be returned"));
+            assertEquals(participant.getFullName(), stats.getExecutorFullName());
+            assertEquals(LocalDate.of(2000, 1, 1), stats.getBucketStart());
+            assertEquals(5, stats.getFactCount());
+            assertEquals(5 * 600, stats.getTotalDurationSeconds());
+            assertEquals(600.0, stats.getAverageDurationSeconds());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void getStats_shouldApplyFilterToDailyRows_ifFilterIsGiven() {
+        //given
+        saveRandomFacts();
+        statsRefresher.refresh();
+        Participant executor = initialParticipants.get(0);
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setExecutorEmail(executor.getEmail());
+        filterOptionsDto.setFromFinishTime(LocalDateTime.of(2000, 3, 1, 0, 0));
+        filterOptionsDto.setToFinishTime(LocalDateTime.of(2000, 7, 1, 0, 0));
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_stats")
+                                .param("bucket", "MONTH")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetExecutionFactStatsDto result = objectMapper.readValue(resultJson, GetExecutionFactStatsDto.class);
+        assertEquals(
+                List.of(LocalDate.of(2000, 3, 1), LocalDate.of(2000, 5, 1), LocalDate.of(2000, 7, 1)),
+                result.getStats().stream().map(ExecutionFactStatsDto::getBucketStart).toList()
+        );
+        assertTrue(result.getStats().stream().allMatch(stats -> executor.getId().equals(stats.getExecutorId())));
+        assertTrue(result.getStats().stream().allMatch(stats -> stats.getFactCount() == 1));
+    }
+
+    @Test
+    @SneakyThrows
+    void getStats_shouldCountFactsArchivedAfterPreviousRefresh() {
+        //given
+        saveRandomFacts();
+        doReturn(LocalDateTime.of(2001, 1, 1, 0, 0)).when(timeService).utcNow();
+        statsRefresher.refresh();
+        doReturn(LocalDateTime.of(2001, 6, 1, 0, 0)).when(timeService).utcNow();
+        archiver.archiveExpired();
+        LocalDateTime refreshedAt = LocalDateTime.of(2001, 6, 2, 0, 0);
+        doReturn(refreshedAt).when(timeService).utcNow();
+        statsRefresher.refresh();
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setIncludeArchived(true);
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_stats")
+                                .param("bucket", "YEAR")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetExecutionFactStatsDto result = objectMapper.readValue(resultJson, GetExecutionFactStatsDto.class);
+        assertEquals(refreshedAt, result.getRefreshedAt());
+        assertEquals(List.of(5L, 5L), result.getStats().stream().map(ExecutionFactStatsDto::getFactCount).toList());
+        List<ExecutionFactDailyStats> dailyRows = dailyStatsRepository.findAll();
+        assertEquals(5, dailyRows.stream().filter(ExecutionFactDailyStats::getArchived).count());
+        assertEquals(5, dailyRows.stream().filter(row -> !row.getArchived()).count());
+    }
+
+    @Test
+    @SneakyThrows
+    void refresh_shouldRecomputeOnlyChangedDays_ifFactWasRecordedSincePreviousRefresh() {
+        //given
+        saveRandomFacts();
+        LocalDateTime firstRefreshedAt = LocalDateTime.of(2001, 6, 2, 0, 0);
+        doReturn(firstRefreshedAt).when(timeService).utcNow();
+        statsRefresher.refresh();
+        LocalDate changedDay = LocalDate.of(2000, 1, 1);
+        RecordExecutionFactDto executionFactDto = new RecordExecutionFactDto(
+                initialParticipants.get(1).getId(), "recorded",
+                changedDay.atTime(0, 0), changedDay.atTime(0, 20)
+        );
+        mockMvc.perform(
+                        post("/api/v1/execution-facts")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(executionFactDto)))
+                .andExpect(status().isCreated());
+        LocalDateTime secondRefreshedAt = LocalDateTime.of(2001, 6, 3, 0, 0);
+        doReturn(secondRefreshedAt).when(timeService).utcNow();
+        //when
+        statsRefresher.refresh();
+        //then
+        List<ExecutionFactDailyStats> dailyRows = dailyStatsRepository.findAll();
+        assertEquals(11, dailyRows.size());
+        assertTrue(dailyRows.stream().allMatch(row ->
+                (changedDay.equals(row.getFinishDay()) ? secondRefreshedAt : firstRefreshedAt)
+                        .equals(row.getRefreshedAt())));
+        ExecutionFactDailyStats recorded = dailyRows.stream()
+                .filter(row -> changedDay.equals(row.getFinishDay()))
+                .filter(row -> initialParticipants.get(1).getId().equals(row.getExecutorId()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("recorded fact must be counted"));
+        assertEquals(1, recorded.getFactCount());
+        assertEquals(1200, recorded.getTotalDurationSeconds());
+        assertEquals(0, statsChangeRepository.count(), "marks of changed days must be consumed");
+        assertEquals(secondRefreshedAt,
+                statsRefreshRepository.findById(ExecutionFactStatsRefresh.DAILY_STATS).orElseThrow().getRefreshedAt());
+    }
+
+    @Test
+    @SneakyThrows
+    void refresh_shouldRecomputeDaysOfReassignedFacts_ifFactsWereUpdatedByFilter() {
+        //given
+        saveRandomFacts();
+        LocalDateTime firstRefreshedAt = LocalDateTime.of(2001, 6, 2, 0, 0);
+        doReturn(firstRefreshedAt).when(timeService).utcNow();
+        statsRefresher.refresh();
+        Participant from = initialParticipants.get(0);
+        Participant to = initialParticipants.get(1);
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail(from.getEmail());
+        mockMvc.perform(
+                        post("/api/v1/execution-facts/_update")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new BulkUpdateExecutionFactsDto(filter, to.getId(), null))))
+                .andExpect(status().isOk());
+        LocalDateTime secondRefreshedAt = LocalDateTime.of(2001, 6, 3, 0, 0);
+        doReturn(secondRefreshedAt).when(timeService).utcNow();
+        //when
+        statsRefresher.refresh();
+        //then
+        List<ExecutionFactDailyStats> dailyRows = dailyStatsRepository.findAll();
+        assertEquals(10, dailyRows.size());
+        assertTrue(dailyRows.stream().allMatch(row -> to.getId().equals(row.getExecutorId())),
+                "reassigned facts must be counted for new executor");
+        assertEquals(5, dailyRows.stream().filter(row -> secondRefreshedAt.equals(row.getRefreshedAt())).count());
+        assertEquals(0, statsChangeRepository.count(), "marks of changed days must be consumed");
+    }
+
+    @Test
+    void refresh_shouldSkipStatistics_ifTheyAreRefreshedByOtherTransaction() {
+        //given
+        saveRandomFacts();
+        LocalDateTime refreshedAt = LocalDateTime.of(2001, 1, 1, 0, 0);
+        doReturn(refreshedAt).when(timeService).utcNow();
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            statsRefreshRepository.tryLock(ExecutionFactStatsRefresh.DAILY_STATS).orElseThrow();
+            CompletableFuture.runAsync(statsRefresher::refresh).join();
+        });
+        //then
+        assertNull(
+                statsRefreshRepository.findById(ExecutionFactStatsRefresh.DAILY_STATS).orElseThrow().getRefreshedAt(),
+                "daily statistics locked by other transaction must not be refreshed"
+        );
+        assertEquals(refreshedAt,
+                statsRefreshRepository.findById(ExecutionFactStatsRefresh.DURATION_HISTOGRAM).orElseThrow().getRefreshedAt());
+    }
+
+    @Test
+    @SneakyThrows
+    void getStats_shouldReturnBadRequest_ifDescriptionFilterIsGiven() {
+        //given
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        filterOptionsDto.setDescription("a");
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_stats")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertTrue(resultJson.contains("description: is not supported by statistics"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getDurationPercentiles_shouldEstimatePercentilesByHour_afterRefresh() {
+        //given
+        saveFactsLastingFromOneToHundredSeconds();
+        LocalDateTime refreshedAt = LocalDateTime.of(2001, 1, 1, 0, 0);
+        doReturn(refreshedAt).when(timeService).utcNow();
+        statsRefresher.refresh();
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_percentiles")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ExecutionFactFilterOptionsDto())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetExecutionFactDurationPercentilesDto result =
+                objectMapper.readValue(resultJson, GetExecutionFactDurationPercentilesDto.class);
+        assertEquals(refreshedAt, result.getRefreshedAt());
+        assertEquals(
+                List.of(LocalDateTime.of(2000, 1, 1, 10, 0), LocalDateTime.of(2000, 1, 1, 11, 0)),
+                result.getBuckets().stream().map(ExecutionFactDurationPercentilesDto::getBucketStart).toList()
+        );
+        for (ExecutionFactDurationPercentilesDto bucket : result.getBuckets()) {
+            assertEquals(initialParticipants.get(0).getId(), bucket.getExecutorId());
+            assertEquals(initialParticipants.get(0).getFullName(), bucket.getExecutorFullName());
+            assertEquals(50, bucket.getFactCount());
+            assertEquals(
+                    List.of(0.5, 0.95, 0.99),
+                    bucket.getPercentiles().stream().map(DurationPercentileDto::getPercentile).toList()
+            );
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void getDurationPercentiles_shouldMergeHourlyHistogramsByDay_ifDayBucketIsGiven() {
+        //given
+        saveFactsLastingFromOneToHundredSeconds();
+        statsRefresher.refresh();
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_percentiles")
+                                .param("bucket", "DAY")
+                                .param("percentiles", "0.5", "0.99")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new ExecutionFactFilterOptionsDto())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetExecutionFactDurationPercentilesDto result =
+                objectMapper.readValue(resultJson, GetExecutionFactDurationPercentilesDto.class);
+        assertEquals(1, result.getBuckets().size());
+        ExecutionFactDurationPercentilesDto bucket = result.getBuckets().get(0);
+        assertEquals(LocalDateTime.of(2000, 1, 1, 0, 0), bucket.getBucketStart());
+        assertEquals(100, bucket.getFactCount());
+        assertEquals(50_000, bucket.getPercentiles().get(0).getDurationMillis(), 50_000 * 0.1);
+        assertEquals(99_000, bucket.getPercentiles().get(1).getDurationMillis(), 99_000 * 0.1);
+    }
+
+    @Test
+    @SneakyThrows
+    void getDurationPercentiles_shouldReturnBadRequest_ifPercentileIsOutOfRange() {
+        //given
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto();
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_percentiles")
+                                .param("percentiles", "0.5", "1.5")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertTrue(resultJson.contains("percentiles: must be not empty and in range (0, 1]"));
+    }
+
+    /**
+     * Facts of first participant lasting 1..100 seconds, odd durations finish at 10 and even at 11 o'clock.
+     */
+    private void saveFactsLastingFromOneToHundredSeconds() {
+        IntStream.rangeClosed(1, 100).forEach(seconds -> {
+            LocalDateTime finishTime = LocalDateTime.of(2000, 1, 1, seconds % 2 == 1 ? 10 : 11, 30);
+            executionFactRepository.save(ExecutionFact.builder()
+                    .withExecutor(initialParticipants.get(0))
+                    .withDescription("a")
+                    .withStartTime(finishTime.minusSeconds(seconds))
+                    .withFinishTime(finishTime)
+                    .build());
+        });
+        executionFactRepository.flush();
+    }
+
+    private void saveRandomFacts() {
+        String[] characters = new String[]{
+                "a", "b", "c", "d", "e", "f", "g"
+        };
+        List<ExecutionFact> allFacts = IntStream.range(0, 10).mapToObj(
+                num -> saveAndGetExecutionFactFromDb(
+                        num + 1,
+                        initialParticipants.get(num % initialParticipants.size()),
+                        characters[num % characters.length]
+                )
+        ).toList();
+        executionFactRepository.saveAllAndFlush(allFacts);
+    }
+
+    private LocalDateTime findMiddleDateTime(LocalDateTime dateTime1, LocalDateTime dateTime2) {
+        ZoneOffset systemDefaultOffset = OffsetDateTime.now().getOffset();
+        long millis1 = dateTime1.toInstant(systemDefaultOffset).toEpochMilli();
+        long millis2 = dateTime2.toInstant(systemDefaultOffset).toEpochMilli();
+        long middleMillis = (millis1 + millis2) / 2;
+        return LocalDateTime.ofEpochSecond(middleMillis / 1000, 0, systemDefaultOffset);
+    }
+
+    private boolean getDtoEqualsEntity(ExecutionFact entity, GetExecutionFactDto factDto) {
+        return entity.getId().equals(factDto.getId()) &&
+               entity.getExecutor().getId().equals(factDto.getExecutorId()) &&
+               entity.getExecutor().getFullName().equals(factDto.getExecutorFullName()) &&
+               entity.getDescription().equals(factDto.getDescription()) &&
+               entity.getStartTime().equals(factDto.getStartTime()) &&
+               entity.getFinishTime().equals(factDto.getFinishTime());
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldReturnExceptionMessageContainingAllValidationErrors_ifGivenInvalidDto() {
+        //given
+        String executorEmail = "bad%email";
+        LocalDateTime fromFinishTime = LocalDateTime.of(2003, 1, 1, 0, 0);
+        LocalDateTime toFinishTime = fromFinishTime.minusMonths(1);
+        String description = String.join("", Collections.nCopies(501, "a"));
+        Integer pageIndex = -1;
+        Integer pageSize = 0;
+        ExecutionFactFilterOptionsDto filterOptionsDto = new ExecutionFactFilterOptionsDto(
+                executorEmail, fromFinishTime, toFinishTime, description, pageIndex, pageSize
+        );
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/execution-facts/_list")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(filterOptionsDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = assertDoesNotThrow(() -> objectMapper.readValue(resultJson, ExceptionResponse.class), "It should return exceptions");
+        assertTrue(exceptions.getMessage().contains(
+                        "pageSize: must be greater than 0"),
+                "no pageSize message"
+        );
+        assertTrue(exceptions.getMessage().contains(
+                        "factFilterOptionsDto: fromFinishTime is after toFinishTime"),
+                "no range validation message"
+        );
+        assertTrue(exceptions.getMessage().contains(
+                        "description: length must be between 1 and 500"),
+                "no description message"
+        );
+        assertTrue(exceptions.getMessage().contains(
+                        "pageIndex: must be greater than or equal to 0"),
+                "no pageIndex message"
+        );
+        assertTrue(exceptions.getMessage().contains(
+                        "executorEmail: must be a well-formed email address"),
+                "no executorEmail message"
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void getFiltered_shouldReturnExceptionMessage_ifGivenPageSizeExceedsTheLimit() {
         //given
         Participant expectedParticipant = initialParticipants.get(0);
         String executorEmail = expectedParticipant.getEmail();
@@ -664,23 +1880,20 @@ class ExecutionFactControllerTest {
                 .andExpect(content().contentType(MediaType.parseMediaType("application/csv")))
                 .andReturn().getResponse().getContentAsString();
         //then
-        String patter = "id,start_time,finish_time,executor_full_name,executor_id,description\r\n" +
-                        "%s,%s,%s,%s,%s,%s\r\n";
-        assertTrue(
-                patter.formatted(firstSuitable.getId(),
-                                firstSuitable.getStartTime().format(DateTimeFormatter.ISO_DATE_TIME),
-                                firstSuitable.getFinishTime().format(DateTimeFormatter.ISO_DATE_TIME),
-                                firstSuitable.getExecutor().getFullName(), firstSuitable.getExecutor().getId(),
-                                firstSuitable.getDescription())
-                        .equals(resultString)
-                ||
-                patter.formatted(secondSuitable.getId(),
-                                secondSuitable.getStartTime().format(DateTimeFormatter.ISO_DATE_TIME),
-                                secondSuitable.getFinishTime().format(DateTimeFormatter.ISO_DATE_TIME),
-                                secondSuitable.getExecutor().getFullName(), secondSuitable.getExecutor().getId(),
-                                secondSuitable.getDescription())
-                        .equals(resultString),
-                "It should contain only one object as filter has pageSize specified");
+        String header = "id,start_time,finish_time,executor_full_name,executor_id,description";
+        String row = "%s,%s,%s,%s,%s,%s";
+        Set<String> expectedRows = Stream.of(firstSuitable, secondSuitable)
+                .map(fact -> row.formatted(fact.getId(),
+                        fact.getStartTime().format(DateTimeFormatter.ISO_DATE_TIME),
+                        fact.getFinishTime().format(DateTimeFormatter.ISO_DATE_TIME),
+                        fact.getExecutor().getFullName(), fact.getExecutor().getId(),
+                        fact.getDescription()))
+                .collect(Collectors.toSet());
+        List<String> lines = List.of(resultString.split("\r\n"));
+        assertEquals(header, lines.get(0), "It should start with titles");
+        assertEquals(expectedRows, Set.copyOf(lines.subList(1, lines.size())),
+                "It should contain all suitable facts, ignoring pagination");
+        assertEquals(expectedRows.size() + 1, lines.size(), "It should not contain duplicated rows");
     }
 
     @Test
@@ -831,4 +2044,289 @@ class ExecutionFactControllerTest {
         assertEquals("Executor with id '%s' not found".formatted(invalid3.getExecutorId()), actual3Messages);
     }
 
+    @Test
+    @SneakyThrows
+    void uploadFromFile_shouldResolveExecutorsWithSingleQueryAndReportFactsWithoutStartTime() {
+        //given
+        List<RecordExecutionFactDto> valid = IntStream.range(0, 20)
+                .mapToObj(num -> RecordExecutionFactDto.builder()
+                        .withDescription("description " + num)
+                        .withExecutorId(initialParticipants.get(num % initialParticipants.size()).getId())
+                        .withStartTime(LocalDateTime.of(2003, 1, 1, 0, 0))
+                        .withFinishTime(LocalDateTime.of(2003, 1, 2, 0, 0))
+                        .build())
+                .toList();
+        RecordExecutionFactDto withoutStartTime = RecordExecutionFactDto.builder()
+                .withDescription("description")
+                .withExecutorId(initialParticipants.get(0).getId())
+                .withFinishTime(LocalDateTime.of(2003, 1, 2, 0, 0))
+                .build();
+        List<RecordExecutionFactDto> facts = Stream.concat(valid.stream(), Stream.of(withoutStartTime)).toList();
+        //when
+        String resultJson = mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload")
+                                .file("file", objectMapper.writeValueAsBytes(facts))
+                )
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExecutionFactUploadResultDto resultDto = objectMapper.readValue(resultJson, ExecutionFactUploadResultDto.class);
+        assertEquals(valid.size(), resultDto.getImportedCount(), "must have right imported count");
+        assertEquals(1, resultDto.getFailedCount(), "must have right failed count");
+        assertEquals("Start time must be specified if finish time is",
+                resultDto.getObjectToItsErrors().get(0).getErrors().getMessage());
+        assertEquals(valid.size(), executionFactRepository.count(), "all valid facts must be saved");
+        verify(participantRepository, times(1)).findAllById(any());
+        verify(participantRepository, never()).findById(any());
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadFromFile_shouldCountImportedAndFailedRows() {
+        //given
+        List<RecordExecutionFactDto> facts = List.of(
+                RecordExecutionFactDto.builder()
+                        .withDescription("valid")
+                        .withExecutorId(initialParticipants.get(0).getId())
+                        .build(),
+                RecordExecutionFactDto.builder()
+                        .withDescription("unknown executor")
+                        .withExecutorId(UUID.randomUUID())
+                        .build()
+        );
+        double importedBefore = meterRegistry.counter("execution_facts.upload.rows", "result", "imported").count();
+        double failedBefore = meterRegistry.counter("execution_facts.upload.rows", "result", "failed").count();
+        //when
+        mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload")
+                                .file("file", objectMapper.writeValueAsBytes(facts))
+                )
+                .andExpect(status().isCreated());
+        //then
+        assertEquals(importedBefore + 1,
+                meterRegistry.counter("execution_facts.upload.rows", "result", "imported").count(),
+                "imported rows must be counted");
+        assertEquals(failedBefore + 1,
+                meterRegistry.counter("execution_facts.upload.rows", "result", "failed").count(),
+                "failed rows must be counted");
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadFromFile_shouldKeepCommittedBatches_ifLaterBatchFails() {
+        //given
+        List<RecordExecutionFactDto> facts = IntStream.range(0, 60)
+                .mapToObj(num -> RecordExecutionFactDto.builder()
+                        .withDescription("description " + num)
+                        .withExecutorId(initialParticipants.get(0).getId())
+                        .build())
+                .toList();
+        doCallRealMethod()
+                .doThrow(new IllegalArgumentException("second batch failed"))
+                .when(batchImporter).importBatch(any());
+        //when
+        mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload")
+                                .file("file", objectMapper.writeValueAsBytes(facts))
+                )
+                .andExpect(status().isBadRequest());
+        //then
+        assertEquals(50, executionFactRepository.count(), "first batch must be committed on its own");
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadFromFile_shouldRejectElementThatCanNotBeBoundAndImportTheRest() {
+        //given
+        UUID executorId = initialParticipants.get(0).getId();
+        String json = """
+                [
+                  {"description": "first", "executorId": "%1$s"},
+                  {"description": "bad", "executorId": "%1$s", "startTime": "not a date"},
+                  {"description": "third", "executorId": "%1$s"}
+                ]
+                """.formatted(executorId);
+        //when
+        String resultJson = mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload")
+                                .file("file", json.getBytes(StandardCharsets.UTF_8))
+                )
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExecutionFactUploadResultDto resultDto = objectMapper.readValue(resultJson, ExecutionFactUploadResultDto.class);
+        assertEquals(2, resultDto.getImportedCount(), "facts around bad element must be imported");
+        assertEquals(1, resultDto.getFailedCount(), "bad element must be rejected");
+        assertNull(resultDto.getObjectToItsErrors().get(0).getFactDto(), "bad element can not be bound");
+        assertNotNull(resultDto.getObjectToItsErrors().get(0).getErrors().getMessage());
+        assertEquals(2, executionFactRepository.count());
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadFromFile_shouldReturnBadRequestWithPartialResult_ifJsonIsBroken() {
+        //given
+        List<RecordExecutionFactDto> facts = IntStream.range(0, 60)
+                .mapToObj(num -> RecordExecutionFactDto.builder()
+                        .withDescription("description " + num)
+                        .withExecutorId(initialParticipants.get(0).getId())
+                        .build())
+                .toList();
+        String json = objectMapper.writeValueAsString(facts);
+        byte[] broken = json.substring(0, json.length() - 1).concat(", {\"description\": ").getBytes(StandardCharsets.UTF_8);
+        //when
+        String resultJson = mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload")
+                                .file("file", broken)
+                )
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExecutionFactUploadFailureDto failureDto = objectMapper.readValue(resultJson, ExecutionFactUploadFailureDto.class);
+        assertEquals(50, failureDto.getImportedCount(), "first batch must be reported as imported");
+        assertEquals(0, failureDto.getFailedCount());
+        assertNotNull(failureDto.getMessage());
+        assertEquals(50, executionFactRepository.count(), "first batch must be committed on its own");
+    }
+
+    @Test
+    @SneakyThrows
+    void getUploadsInProgress_shouldReturnProgressOfRunningUpload() {
+        //given
+        List<RecordExecutionFactDto> facts = List.of(
+                RecordExecutionFactDto.builder()
+                        .withDescription("description")
+                        .withExecutorId(initialParticipants.get(0).getId())
+                        .build(),
+                RecordExecutionFactDto.builder()
+                        .withDescription("description")
+                        .build()
+        );
+        List<List<ExecutionFactUploadProgressDto>> progressDuringUpload = new ArrayList<>();
+        doAnswer(invocation -> {
+            progressDuringUpload.add(objectMapper.readValue(
+                    mockMvc.perform(get("/api/v1/execution-facts/upload/progress"))
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString(),
+                    new TypeReference<>() {}
+            ));
+            return invocation.callRealMethod();
+        }).when(batchImporter).importBatch(any());
+        //when
+        mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload")
+                                .file("file", objectMapper.writeValueAsBytes(facts))
+                )
+                .andExpect(status().isCreated());
+        //then
+        assertEquals(1, progressDuringUpload.size(), "both facts must be imported in one batch");
+        assertEquals(1, progressDuringUpload.get(0).size(), "upload must be visible while it runs");
+        assertEquals(0L, progressDuringUpload.get(0).get(0).getProcessedCount(), "nothing is processed before first batch");
+        String afterUpload = mockMvc.perform(get("/api/v1/execution-facts/upload/progress"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("[]", afterUpload, "finished upload must not be listed");
+    }
+
+    @Test
+    @SneakyThrows
+    void submitUploadJob_shouldImportValidFactsInBackgroundAndReportResult() {
+        //given
+        RecordExecutionFactDto valid = RecordExecutionFactDto.builder()
+                .withDescription("description")
+                .withExecutorId(initialParticipants.get(0).getId())
+                .build();
+        RecordExecutionFactDto invalid = RecordExecutionFactDto.builder()
+                .withExecutorId(UUID.randomUUID())
+                .withDescription("description")
+                .build();
+        //when
+        String submitResult = mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload/jobs")
+                                .file("file", objectMapper.writeValueAsBytes(List.of(valid, invalid, valid)))
+                )
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        UUID jobId = UUID.fromString(objectMapper.readValue(submitResult, Map.class).get("id").toString());
+        ExecutionFactUploadJobDto job = awaitFinishedUploadJob(jobId);
+        assertEquals(UploadJobStatus.COMPLETED, job.getStatus(), "job must complete");
+        assertEquals(2, job.getImportedCount(), "must have right imported count");
+        assertEquals(1, job.getFailedCount(), "must have right failed count");
+        assertEquals(invalid, job.getObjectToItsErrors().get(0).getFactDto(), "must report declined object");
+        assertEquals(2, executionFactRepository.count(), "valid facts must be saved");
+        assertFalse(Files.exists(uploadSpoolDirectory.resolve(jobId + ".json")), "spooled file must be deleted");
+    }
+
+    @Test
+    @SneakyThrows
+    void submitUploadJob_shouldReportFailure_ifGivenFileContainsInvalidJson() {
+        //given
+        byte[] file = "{\"not\": \"array\"}".getBytes();
+        //when
+        String submitResult = mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload/jobs")
+                                .file("file", file)
+                )
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        UUID jobId = UUID.fromString(objectMapper.readValue(submitResult, Map.class).get("id").toString());
+        ExecutionFactUploadJobDto job = awaitFinishedUploadJob(jobId);
+        assertEquals(UploadJobStatus.FAILED, job.getStatus(), "job must fail");
+        assertTrue(job.getFailureMessage().contains("Expected array of execution facts"), "must contain failure reason");
+        assertFalse(Files.exists(uploadSpoolDirectory.resolve(jobId + ".json")), "spooled file must be deleted");
+    }
+
+    @Test
+    @SneakyThrows
+    void submitUploadJob_shouldDeleteSpooledFile_ifJobIsRejected() {
+        //given
+        doThrow(new TaskRejectedException("queue is full")).when(uploadExecutor).execute(any(Runnable.class));
+        List<Path> spooledBefore;
+        try (Stream<Path> files = Files.list(uploadSpoolDirectory)) {
+            spooledBefore = files.toList();
+        }
+        //when
+        mockMvc.perform(
+                        multipart(HttpMethod.POST, "/api/v1/execution-facts/upload/jobs")
+                                .file("file", objectMapper.writeValueAsBytes(List.of())))
+                .andExpect(status().isServiceUnavailable());
+        //then
+        try (Stream<Path> files = Files.list(uploadSpoolDirectory)) {
+            assertEquals(spooledBefore, files.toList(), "rejected upload must not be left in spool directory");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void getUploadJob_shouldReturnExceptionResponse_ifJobWithGivenIdDoesNotExist() {
+        //given
+        UUID jobId = UUID.randomUUID();
+        //when
+        String resultJson = mockMvc.perform(get("/api/v1/execution-facts/upload/jobs/{id}", jobId))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ExceptionResponse exceptions = assertDoesNotThrow(() -> objectMapper.readValue(resultJson, ExceptionResponse.class), "It should return exceptions");
+        assertEquals("Upload job with id '%s' not found".formatted(jobId), exceptions.getMessage());
+    }
+
+    @SneakyThrows
+    private ExecutionFactUploadJobDto awaitFinishedUploadJob(UUID jobId) {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ExecutionFactUploadJobDto job = objectMapper.readValue(
+                    mockMvc.perform(get("/api/v1/execution-facts/upload/jobs/{id}", jobId))
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString(),
+                    ExecutionFactUploadJobDto.class
+            );
+            if (job.getStatus() == UploadJobStatus.COMPLETED || job.getStatus() == UploadJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Upload job %s did not finish in time".formatted(jobId));
+    }
+
 }
@@ -2,33 +2,83 @@ package org.example.task2restapi.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.SneakyThrows;
 import org.example.task2restapi.Task2RestApiApplication;
 import org.example.task2restapi.config.TestDbConfig;
 import org.example.task2restapi.dto.GetParticipantDto;
+import org.example.task2restapi.dto.GetParticipantsPageDto;
+import org.example.task2restapi.dto.ParticipantRegistrationResultDto;
 import org.example.task2restapi.dto.RegisterParticipantDto;
+import org.example.task2restapi.dto.RegisterParticipantToItsValidationExceptions;
 import org.example.task2restapi.dto.UpdateParticipantDto;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.example.profitsoft.kafka.messages.SimpleEmailDto;
+import org.example.task2restapi.entity.EmailOutboxMessage;
 import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.repository.EmailOutboxRepository;
 import org.example.task2restapi.repository.ParticipantRepository;
 import org.example.task2restapi.service.DateTimeService;
+import org.example.task2restapi.service.ParticipantService;
+import org.example.task2restapi.service.impl.EmailOutbox;
+import org.example.task2restapi.service.impl.ParticipantCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -41,6 +91,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestPropertySource(properties = {
         """
         spring.liquibase.contexts=none
+        configuration.scheduling.enabled=false
+        configuration.outbox.relay.backoff-base=PT1M
+        configuration.outbox.relay.backoff-max=PT10M
+        configuration.outbox.retention.max-age=P1D
         """
 })
 @AutoConfigureMockMvc
@@ -58,10 +112,31 @@ class ParticipantControllerTest {
     @SpyBean
     DateTimeService timeService;
 
+    @Autowired
+    ParticipantService participantService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @MockBean
+    KafkaOperations<String, SimpleEmailDto> kafkaOperations;
+
+    @Autowired
+    EmailOutbox emailOutbox;
+
+    @Autowired
+    EmailOutboxRepository outboxRepository;
+
     @BeforeEach
     void initDb() {
+        outboxRepository.deleteAll();
         participantRepository.deleteAll();
         participantRepository.flush();
+        when(kafkaOperations.send(any(Message.class))).thenReturn(CompletableFuture.completedFuture(null));
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -92,15 +167,168 @@ class ParticipantControllerTest {
                 new GetParticipantDto(participant3.getId(), participant3.getFullName(), participant3.getEmail())
         );
         //when
-        String result = mockMvc.perform(get("/api/v1/participants"))
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/participants"))
                 .andExpect(status().isOk())
-                .andReturn().getResponse().getContentAsString();
+                .andReturn().getResponse();
         //then
-        List<GetParticipantDto> actual = objectMapper.readValue(result, new TypeReference<>() {});
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        List<GetParticipantDto> actual = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
         assertEquals(expected.size(), actual.size(), "size must be same");
         assertTrue(actual.containsAll(expected), "must contain all expected values");
     }
 
+    @Test
+    @SneakyThrows
+    void getParticipants_shouldReturnEmptyList_ifThereAreNoParticipants() {
+        //when
+        String result = mockMvc.perform(get("/api/v1/participants"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals("[]", result);
+    }
+
+    @Test
+    @SneakyThrows
+    void getParticipants_shouldReturnAllParticipantsPageByPage_ifContinuationTokenIsUsed() {
+        //given
+        List<Participant> participants = participantRepository.saveAllAndFlush(IntStream.range(0, 7)
+                .mapToObj(num -> Participant.builder()
+                        .withEmail("email%d@gmail.com".formatted(num))
+                        .withFullName("name " + num)
+                        .build())
+                .toList());
+        //when
+        List<GetParticipantDto> actual = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/participants")
+                    .param("paginationMode", "KEYSET")
+                    .param("pageSize", "3");
+            if (continuationToken != null) {
+                request.param("continuationToken", continuationToken);
+            }
+            String result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            GetParticipantsPageDto page = objectMapper.readValue(result, GetParticipantsPageDto.class);
+            actual.addAll(page.getParticipants());
+            pageSizes.add(page.getParticipants().size());
+            continuationToken = page.getNextContinuationToken();
+        } while (continuationToken != null);
+        //then
+        assertEquals(List.of(3, 3, 1), pageSizes, "pages must be full except last one");
+        assertEquals(participants.size(), actual.size(), "participants must not be repeated");
+        assertEquals(
+                participants.stream().map(Participant::getId).collect(Collectors.toSet()),
+                actual.stream().map(GetParticipantDto::getId).collect(Collectors.toSet()),
+                "all participants must be returned"
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void getParticipants_shouldReturnExceptionResponse_ifGivenPageSizeIsOutOfBounds() {
+        //when
+        String resultJson = mockMvc.perform(get("/api/v1/participants")
+                        .param("paginationMode", "KEYSET")
+                        .param("pageSize", "100000"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals("pageSize: must be between 1 and 500",
+                objectMapper.readValue(resultJson, Map.class).get("message"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getParticipants_shouldReturnExceptionResponse_ifGivenContinuationTokenIsMalformed() {
+        //when
+        String resultJson = mockMvc.perform(get("/api/v1/participants")
+                        .param("paginationMode", "KEYSET")
+                        .param("continuationToken", "malformed"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals("continuationToken: is malformed",
+                objectMapper.readValue(resultJson, Map.class).get("message"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getParticipants_shouldReturnExceptionResponse_ifOffsetPaginationModeIsGiven() {
+        //when
+        String resultJson = mockMvc.perform(get("/api/v1/participants").param("paginationMode", "OFFSET"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals("paginationMode: only KEYSET is supported for participants",
+                objectMapper.readValue(resultJson, Map.class).get("message"));
+    }
+
+    @Test
+    @SneakyThrows
+    void streamParticipants_shouldWriteAllParticipantsAsNewlineDelimitedJson() {
+        //given
+        List<Participant> participants = participantRepository.saveAllAndFlush(IntStream.range(0, 5)
+                .mapToObj(num -> Participant.builder()
+                        .withEmail("email%d@gmail.com".formatted(num))
+                        .withFullName("name " + num)
+                        .build())
+                .toList());
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/participants/_stream"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        //then
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        List<String> lines = response.getContentAsString().lines().toList();
+        assertEquals(participants.size(), lines.size(), "every participant must be on its own line");
+        Set<GetParticipantDto> actual = new HashSet<>();
+        for (String line : lines) {
+            actual.add(objectMapper.readValue(line, GetParticipantDto.class));
+        }
+        assertEquals(
+                participants.stream()
+                        .map(p -> new GetParticipantDto(p.getId(), p.getFullName(), p.getEmail()))
+                        .collect(Collectors.toSet()),
+                actual,
+                "all participants must be written"
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void streamAll_shouldFlushOnceAndLeaveStreamOpen() {
+        //given
+        participantRepository.saveAllAndFlush(IntStream.range(0, 5)
+                .mapToObj(num -> Participant.builder()
+                        .withEmail("email%d@gmail.com".formatted(num))
+                        .withFullName("name " + num)
+                        .build())
+                .toList());
+        AtomicInteger flushes = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream written = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        //when
+        participantService.streamAll(() -> written);
+        //then
+        assertEquals(5, written.toString(StandardCharsets.UTF_8).lines().count(), "every participant must be written");
+        assertEquals(1, flushes.get(), "output must be flushed once after all participants are written");
+        assertFalse(closed.get(), "output is closed by its owner");
+    }
+
     @Test
     @SneakyThrows
     void register_shouldSaveValidParticipant() {
@@ -124,6 +352,274 @@ class ParticipantControllerTest {
         assertEquals(participantDto.getFullName(), fromDb.getFullName());
     }
 
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void register_shouldPublishNotificationThroughOutbox_onlyAfterRegistrationIsCommitted() {
+        //given
+        RegisterParticipantDto participantDto = new RegisterParticipantDto("name", "email@gmail.com");
+        //when
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(participantDto)))
+                .andExpect(status().isCreated());
+        //then
+        verify(kafkaOperations, never()).send(any(Message.class));
+        List<EmailOutboxMessage> enqueued = outboxRepository.findAll();
+        assertEquals(1, enqueued.size(), "notification must be enqueued");
+        assertNull(enqueued.get(0).getSentAt(), "notification must not be sent by registration");
+        assertEquals(1, emailOutbox.publishPending(), "relay must publish enqueued notification");
+        ArgumentCaptor<Message<SimpleEmailDto>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(kafkaOperations, times(1)).send(sent.capture());
+        assertEquals(List.of(participantDto.getEmail()), sent.getValue().getPayload().getTo());
+        assertEquals("simpleEmail", sent.getValue().getHeaders().get(KafkaHeaders.TOPIC));
+        assertNotNull(outboxRepository.findAll().get(0).getSentAt(), "published notification must be marked sent");
+        assertEquals(0, emailOutbox.publishPending(), "sent notification must not be published again");
+    }
+
+    @Test
+    @SneakyThrows
+    void publishPending_shouldKeepNotificationUnsent_ifBrokerDidNotAcknowledgeIt() {
+        //given
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new RegisterParticipantDto("name", "email@gmail.com"))))
+                .andExpect(status().isCreated());
+        when(kafkaOperations.send(any(Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker is down")));
+        //when
+        int published = emailOutbox.publishPending();
+        //then
+        assertEquals(0, published, "nothing must be marked as sent");
+        EmailOutboxMessage fromDb = outboxRepository.findAll().get(0);
+        assertNull(fromDb.getSentAt(), "notification must be retried later");
+        assertEquals(1, fromDb.getAttempts(), "failed attempt must be counted");
+        assertNull(fromDb.getParkedAt(), "notification must not be parked after transient failure");
+    }
+
+    @Test
+    @SneakyThrows
+    void publishPending_shouldRetryNotificationWithCappedExponentialBackoff() {
+        //given
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new RegisterParticipantDto("name", "email@gmail.com"))))
+                .andExpect(status().isCreated());
+        when(kafkaOperations.send(any(Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker is down")));
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+        List<Duration> backoffs = new ArrayList<>();
+        //when
+        for (int attempt = 0; attempt < 6; attempt++) {
+            when(timeService.utcNow()).thenReturn(now);
+            emailOutbox.publishPending();
+            LocalDateTime nextAttemptAt = outboxRepository.findAll().get(0).getNextAttemptAt();
+            backoffs.add(Duration.between(now, nextAttemptAt));
+            when(timeService.utcNow()).thenReturn(nextAttemptAt.minusSeconds(1));
+            assertEquals(0, emailOutbox.publishPending(), "notification must not be claimed before backoff ends");
+            now = nextAttemptAt;
+        }
+        //then
+        assertEquals(
+                Stream.of(1, 2, 4, 8, 10, 10).map(Duration::ofMinutes).toList(),
+                backoffs,
+                "backoff must double after every failure up to its max"
+        );
+        verify(kafkaOperations, times(6)).send(any(Message.class));
+    }
+
+    @Test
+    @SneakyThrows
+    void publishPending_shouldNotParkNotification_ifItFailsManyTimesWithinBackoffWindow() {
+        //given
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new RegisterParticipantDto("name", "email@gmail.com"))))
+                .andExpect(status().isCreated());
+        when(kafkaOperations.send(any(Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new KafkaException("send failed", new TimeoutException("metadata not available"))));
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+        //when
+        for (int attempt = 0; attempt < 20; attempt++) {
+            when(timeService.utcNow()).thenReturn(now);
+            emailOutbox.publishPending();
+            now = now.plusMinutes(10);
+        }
+        //then
+        EmailOutboxMessage fromDb = outboxRepository.findAll().get(0);
+        assertEquals(20, fromDb.getAttempts(), "every failed attempt must be counted");
+        assertNull(fromDb.getParkedAt(), "notification failing with retriable error must never be parked");
+        assertNull(fromDb.getSentAt());
+    }
+
+    @Test
+    @SneakyThrows
+    void publishPending_shouldParkNotificationAtOnce_ifBrokerRejectsItForGood() {
+        //given
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new RegisterParticipantDto("name", "email@gmail.com"))))
+                .andExpect(status().isCreated());
+        when(kafkaOperations.send(any(Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new KafkaException("send failed", new RecordTooLargeException("record is too large"))));
+        //when
+        int published = emailOutbox.publishPending();
+        //then
+        assertEquals(0, published);
+        EmailOutboxMessage fromDb = outboxRepository.findAll().get(0);
+        assertNotNull(fromDb.getParkedAt(), "rejected notification must be parked");
+        assertEquals(0, fromDb.getAttempts(), "parked notification must not be counted as retried");
+    }
+
+    @Test
+    void publishPending_shouldParkNotificationAtOnce_ifItCanNotBeDeserialized() {
+        //given
+        outboxRepository.save(EmailOutboxMessage.builder()
+                .withTopic("simpleEmail")
+                .withMessageKey("key")
+                .withPayload("not a json")
+                .withCreatedAt(timeService.utcNow())
+                .build());
+        //when
+        int published = emailOutbox.publishPending();
+        //then
+        assertEquals(0, published);
+        verify(kafkaOperations, never()).send(any(Message.class));
+        assertNotNull(outboxRepository.findAll().get(0).getParkedAt(), "poison message must be parked");
+        assertEquals(0, emailOutbox.publishPending(), "parked message must not be claimed again");
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    void publishPending_shouldNotHoldTransaction_whileBrokerAcknowledgesNotification() {
+        //given
+        mockMvc.perform(
+                        post("/api/v1/participants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new RegisterParticipantDto("name", "email@gmail.com"))))
+                .andExpect(status().isCreated());
+        AtomicBoolean sentInTransaction = new AtomicBoolean(true);
+        when(kafkaOperations.send(any(Message.class))).thenAnswer(invocation -> {
+            sentInTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return CompletableFuture.completedFuture(null);
+        });
+        //when
+        int published = emailOutbox.publishPending();
+        //then
+        assertEquals(1, published);
+        assertFalse(sentInTransaction.get(), "no transaction must be open while notification is being sent");
+        assertNotNull(outboxRepository.findAll().get(0).getSentAt(), "published notification must be marked sent");
+    }
+
+    @Test
+    void purgeSent_shouldDeleteOnlyMessagesSentBeforeRetention() {
+        //given
+        LocalDateTime now = timeService.utcNow();
+        EmailOutboxMessage sentLongAgo = outboxMessage(now.minusDays(3), now.minusDays(2), null);
+        EmailOutboxMessage sentRecently = outboxMessage(now.minusDays(3), now.minusHours(1), null);
+        EmailOutboxMessage unsent = outboxMessage(now.minusDays(3), null, null);
+        EmailOutboxMessage parked = outboxMessage(now.minusDays(3), null, now.minusDays(2));
+        outboxRepository.saveAll(List.of(sentLongAgo, sentRecently, unsent, parked));
+        //when
+        int purged = emailOutbox.purgeSent();
+        //then
+        assertEquals(1, purged);
+        assertEquals(
+                Set.of(sentRecently.getId(), unsent.getId(), parked.getId()),
+                outboxRepository.findAll().stream().map(EmailOutboxMessage::getId).collect(Collectors.toSet()),
+                "only messages sent before retention must be deleted"
+        );
+    }
+
+    private EmailOutboxMessage outboxMessage(LocalDateTime createdAt, LocalDateTime sentAt, LocalDateTime parkedAt) {
+        return EmailOutboxMessage.builder()
+                .withTopic("simpleEmail")
+                .withMessageKey("key")
+                .withPayload("{}")
+                .withCreatedAt(createdAt)
+                .withSentAt(sentAt)
+                .withParkedAt(parkedAt)
+                .build();
+    }
+
+    @Test
+    @SneakyThrows
+    void registerAll_shouldRegisterValidParticipantsAndReportDeclinedOnes() {
+        //given
+        participantRepository.saveAndFlush(Participant.builder()
+                .withEmail("taken@gmail.com")
+                .withFullName("registered")
+                .build());
+        RegisterParticipantDto valid1 = new RegisterParticipantDto("name 1", "email1@gmail.com");
+        RegisterParticipantDto valid2 = new RegisterParticipantDto("name 2", "email2@gmail.com");
+        RegisterParticipantDto invalid = new RegisterParticipantDto("name 3", "not an email");
+        RegisterParticipantDto taken = new RegisterParticipantDto("name 4", "taken@gmail.com");
+        RegisterParticipantDto repeated = new RegisterParticipantDto("name 5", "email1@gmail.com");
+        List<RegisterParticipantDto> participantDtos = List.of(valid1, valid2, invalid, taken, repeated);
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/participants/_bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(participantDtos)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        ParticipantRegistrationResultDto result = objectMapper.readValue(resultJson, ParticipantRegistrationResultDto.class);
+        assertEquals(2, result.getRegisteredCount(), "must have right registered count");
+        assertEquals(3, result.getFailedCount(), "must have right failed count");
+        Map<RegisterParticipantDto, String> declined = result.getObjectToItsErrors().stream()
+                .collect(Collectors.toMap(
+                        RegisterParticipantToItsValidationExceptions::getParticipantDto,
+                        declinedParticipant -> declinedParticipant.getErrors().getMessage()
+                ));
+        assertEquals(Set.of(invalid, taken, repeated), declined.keySet(), "must report all declined participants");
+        assertTrue(declined.get(invalid).contains("email"), "must report invalid email");
+        assertEquals("Email taken@gmail.com is already taken.", declined.get(taken));
+        assertEquals("Email email1@gmail.com is already taken.", declined.get(repeated));
+        assertEquals(
+                Set.of("taken@gmail.com", "email1@gmail.com", "email2@gmail.com"),
+                participantRepository.findAll().stream().map(Participant::getEmail).collect(Collectors.toSet()),
+                "only valid participants must be saved"
+        );
+        verify(participantRepository, times(1)).findTakenEmails(any());
+        verify(participantRepository, never()).findByEmail(any());
+        assertEquals(2, outboxRepository.count(), "notification must be enqueued for every registered participant");
+        assertEquals(2, emailOutbox.publishPending(), "notifications must be published in one batch");
+    }
+
+    @Test
+    @SneakyThrows
+    void registerAll_shouldReturnExceptionResponse_ifGivenListIsTooLarge() {
+        //given
+        List<RegisterParticipantDto> participantDtos = IntStream.range(0, 1001)
+                .mapToObj(num -> new RegisterParticipantDto("name", "email%d@gmail.com".formatted(num)))
+                .toList();
+        //when
+        String resultJson = mockMvc.perform(
+                        post("/api/v1/participants/_bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(participantDtos)))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        assertEquals("participants: must contain at most 1000 elements",
+                objectMapper.readValue(resultJson, Map.class).get("message"));
+        assertEquals(0, participantRepository.count(), "nothing must be saved");
+    }
+
     @Test
     @SneakyThrows
     void register_shouldReturnExceptionResponse_ifGivenDataIsInvalid() {
@@ -174,6 +670,65 @@ class ParticipantControllerTest {
                 "Should contain email taken message.");
     }
 
+    @Test
+    @SneakyThrows
+    void register_shouldRegisterOnlyOneParticipant_ifSameEmailIsRegisteredConcurrently() {
+        //given
+        int attempts = 8;
+        RegisterParticipantDto participantDto = new RegisterParticipantDto("name", "email@gmail.com");
+        String content = objectMapper.writeValueAsString(participantDto);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        //when
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(
+                                    post("/api/v1/participants")
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .content(content))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> actual = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                actual.add(status.get(30, TimeUnit.SECONDS));
+            }
+            //then
+            assertEquals(1, Collections.frequency(actual, 201), "only one registration must succeed");
+            assertEquals(attempts - 1, Collections.frequency(actual, 400), "other registrations must be declined");
+            assertEquals(1, participantRepository.count(), "only one participant must be saved");
+            assertEquals(1, outboxRepository.count(), "only one notification must be enqueued");
+            verify(participantRepository, never()).findByEmail(any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void updateParticipant_shouldKeepEmail_ifGivenEmailIsItsOwn() {
+        //given
+        Participant participant = participantRepository.saveAndFlush(Participant.builder()
+                .withEmail("email@gmail.com")
+                .withFullName("full name")
+                .build());
+        UpdateParticipantDto updateParticipantDto = new UpdateParticipantDto("new name", "email@gmail.com");
+        //when
+        mockMvc.perform(
+                        put("/api/v1/participants/{id}", participant.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updateParticipantDto)))
+                .andExpect(status().isOk());
+        //then
+        Participant updated = participantRepository.findById(participant.getId()).get();
+        assertEquals("email@gmail.com", updated.getEmail());
+        assertEquals("new name", updated.getFullName());
+    }
+
     @Test
     @SneakyThrows
     void updateParticipant_shouldUpdateAllGivenFields() {
@@ -363,4 +918,121 @@ class ParticipantControllerTest {
         assertTrue(participantRepository.findById(participant1.getId()).isPresent(), "It should not affect other records in db");
     }
 
+    @Test
+    @SneakyThrows
+    void getById_shouldServeRepeatedReadsFromCache() {
+        //given
+        Participant participant = participantRepository.saveAndFlush(Participant.builder()
+                .withEmail("email@gmail.com")
+                .withFullName("full name")
+                .build());
+        double hitsBefore = cacheHits();
+        //when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                    .andExpect(status().isOk());
+        }
+        //then
+        verify(participantRepository, times(1)).findById(participant.getId());
+        assertEquals(hitsBefore + 2, cacheHits(), "repeated reads must be counted as cache hits");
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldReturnUpdatedParticipant_ifItWasUpdatedAfterBeingCached() {
+        //given
+        Participant participant = participantRepository.saveAndFlush(Participant.builder()
+                .withEmail("email@gmail.com")
+                .withFullName("full name")
+                .build());
+        mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isOk());
+        UpdateParticipantDto updateParticipantDto = new UpdateParticipantDto(
+                "new name",
+                "newemail@gmail.com"
+        );
+        //when
+        mockMvc.perform(
+                        put("/api/v1/participants/{id}", participant.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updateParticipantDto)))
+                .andExpect(status().isOk());
+        String resultJson = mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetParticipantDto actual = objectMapper.readValue(resultJson, GetParticipantDto.class);
+        assertEquals(updateParticipantDto.getEmail(), actual.getEmail());
+        assertEquals(updateParticipantDto.getFullName(), actual.getFullName());
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldNotCacheParticipant_ifItWasUpdatedWhileBeingLoaded() {
+        //given
+        Participant participant = participantRepository.saveAndFlush(Participant.builder()
+                .withEmail("email@gmail.com")
+                .withFullName("full name")
+                .build());
+        UpdateParticipantDto updateParticipantDto = new UpdateParticipantDto(
+                "new name",
+                "newemail@gmail.com"
+        );
+        AtomicBoolean updated = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Optional<Participant> loaded = participantRepository.findAllById(List.of(participant.getId())).stream()
+                    .findFirst();
+            if (!updated.getAndSet(true)) {
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        mockMvc.perform(
+                                        put("/api/v1/participants/{id}", participant.getId())
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(updateParticipantDto)))
+                                .andExpect(status().isOk());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }).join();
+            }
+            return loaded;
+        }).when(participantRepository).findById(participant.getId());
+        //when
+        mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isOk());
+        String resultJson = mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        //then
+        GetParticipantDto actual = objectMapper.readValue(resultJson, GetParticipantDto.class);
+        assertEquals(updateParticipantDto.getFullName(), actual.getFullName(),
+                "participant loaded before update must not stay in cache");
+    }
+
+    @Test
+    @SneakyThrows
+    void getById_shouldReturnExceptionResponse_ifParticipantWasDeletedAfterBeingCached() {
+        //given
+        Participant participant = participantRepository.saveAndFlush(Participant.builder()
+                .withEmail("email@gmail.com")
+                .withFullName("full name")
+                .build());
+        mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isOk());
+        //when
+        mockMvc.perform(delete("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isOk());
+        //then
+        mockMvc.perform(get("/api/v1/participants/{id}", participant.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ParticipantCache.PARTICIPANTS_BY_ID)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
 }
@@ -0,0 +1,158 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.Task2RestApiApplication;
+import org.example.task2restapi.config.TestDbConfig;
+import org.example.task2restapi.dto.ExecutionFactFilterOptionsDto;
+import org.example.task2restapi.dto.PaginationMode;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.service.ExecutionFactService;
+import org.example.task2restapi.specification.ExecutionFactCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that queries generated for filter and keyset paths of ExecutionFactService
+ * are served by indexes from liquibase changelog.
+ */
+@SpringBootTest(
+        classes = {Task2RestApiApplication.class, TestDbConfig.class}
+)
+@TestPropertySource(properties = {
+        """
+        spring.liquibase.contexts=none
+        configuration.scheduling.enabled=false
+        spring.jpa.properties.hibernate.session_factory.statement_inspector=org.example.task2restapi.repository.CapturingStatementInspector
+        """
+})
+class ExecutionFactIndexTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ExecutionFactService executionFactService;
+
+    @Autowired
+    ExecutionFactRepository executionFactRepository;
+
+    @Autowired
+    ArchivedExecutionFactRepository archivedFactRepository;
+
+    @Autowired
+    ParticipantRepository participantRepository;
+
+    /**
+     * Plans of empty tables do not depend on index selectivity, so facts of many executors
+     * spread over time are saved and statistics are gathered.
+     */
+    @BeforeEach
+    void initDb() {
+        clearDb();
+        List<Participant> executors = participantRepository.saveAll(IntStream.range(0, 250)
+                .mapToObj(num -> Participant.builder()
+                        .withFullName("Test " + num)
+                        .withEmail("test%s@gmail.com".formatted(num))
+                        .build())
+                .toList());
+        executionFactRepository.saveAll(IntStream.range(0, 1000)
+                .mapToObj(num -> ExecutionFact.builder()
+                        .withDescription("description " + num)
+                        .withExecutor(executors.get(num % executors.size()))
+                        .withStartTime(LocalDateTime.of(2000, 1, 1, 0, 0))
+                        .withFinishTime(num % 10 == 0 ? null : LocalDateTime.of(2000, 1, 1, 0, 0).plusDays(num))
+                        .build())
+                .toList());
+        jdbcTemplate.execute("ANALYZE");
+        CapturingStatementInspector.clear();
+    }
+
+    /**
+     * Embedded database is shared with other test classes, which expect it without facts.
+     */
+    @AfterEach
+    void clearDb() {
+        executionFactRepository.deleteAllInBatch();
+        archivedFactRepository.deleteAllInBatch();
+        participantRepository.deleteAllInBatch();
+    }
+
+    /**
+     * @return plans of statements that selected facts, parameters are left unbound
+     */
+    private List<String> explainSelectedFacts() {
+        List<String> statements = CapturingStatementInspector.getStatements().stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from execution_facts "))
+                .toList();
+        assertTrue(!statements.isEmpty(), "facts must be selected from database");
+        return statements.stream()
+                .map(sql -> jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class))
+                .toList();
+    }
+
+    @Test
+    void executorEmailAndFinishTimeFilter_shouldUseExecutorFinishTimeIndex() {
+        //given
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setExecutorEmail("test1@gmail.com");
+        filter.setFromFinishTime(LocalDateTime.of(2001, 1, 1, 0, 0));
+        filter.setToFinishTime(LocalDateTime.of(2001, 2, 1, 0, 0));
+        //when
+        executionFactService.findAll(filter);
+        //then
+        String plan = explainSelectedFacts().get(0);
+        assertTrue(plan.contains("PARTICIPANTS_EMAIL_KEY"), "participant must be found by email index: " + plan);
+        assertTrue(plan.contains("PUBLIC.EXECUTOR_FINISH_TIME_INDEX"),
+                "facts must be found by executor and finish time index: " + plan);
+    }
+
+    @Test
+    void finishTimeFilter_shouldUseFinishTimeIndex() {
+        //given
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setFromFinishTime(LocalDateTime.of(2001, 3, 1, 0, 0));
+        filter.setToFinishTime(LocalDateTime.of(2001, 4, 1, 0, 0));
+        //when
+        executionFactService.findAll(filter);
+        //then
+        String plan = explainSelectedFacts().get(0);
+        assertTrue(plan.contains("PUBLIC.FINISH_TIME_INDEX"), "facts must be found by finish time index: " + plan);
+    }
+
+    @Test
+    void keysetPage_shouldSeekFinishTimeIndexInBothSegments() {
+        //given
+        ExecutionFactFilterOptionsDto filter = new ExecutionFactFilterOptionsDto();
+        filter.setPaginationMode(PaginationMode.KEYSET);
+        filter.setContinuationToken(
+                new ExecutionFactCursor(LocalDateTime.of(2002, 9, 1, 0, 0), UUID.randomUUID()).encode()
+        );
+        //when
+        executionFactService.findAll(filter);
+        //then
+        List<String> plans = explainSelectedFacts();
+        assertEquals(2, plans.size(), "facts with and without finish time must be selected as separate segments");
+        String finished = plans.get(0);
+        assertTrue(finished.contains("PUBLIC.FINISH_TIME_INDEX: FINISH_TIME >="),
+                "facts with finish time must be found by finish time index range from cursor: " + finished);
+        assertTrue(finished.contains("index sorted"), "order must be provided by index: " + finished);
+        String unfinished = plans.get(1);
+        assertTrue(unfinished.contains("PUBLIC.FINISH_TIME_INDEX: FINISH_TIME IS NULL"),
+                "facts without finish time must be found by finish time index range: " + unfinished);
+        assertTrue(unfinished.contains("index sorted"), "order must be provided by index: " + unfinished);
+    }
+
+}
@@ -0,0 +1,171 @@
+package org.example.task2restapi.repository;
+
+import org.example.task2restapi.Task2RestApiApplication;
+import org.example.task2restapi.dto.RecordExecutionFactDto;
+import org.example.task2restapi.dto.UpdateExecutionFactDto;
+import org.example.task2restapi.entity.ExecutionFact;
+import org.example.task2restapi.entity.Participant;
+import org.example.task2restapi.service.DateTimeService;
+import org.example.task2restapi.service.ExecutionFactService;
+import org.example.task2restapi.service.impl.ExecutionFactArchiver;
+import org.example.task2restapi.service.impl.ExecutionFactPartitionMaintainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks partition maintenance on PostgreSQL, which is the only database execution_facts is partitioned on.
+ * Runs against database given by the same DB_* variables as application and is skipped without them.
+ */
+@SpringBootTest(
+        classes = Task2RestApiApplication.class
+)
+@TestPropertySource(properties = {
+        """
+        spring.liquibase.contexts=none
+        configuration.scheduling.enabled=false
+        """
+})
+@EnabledIfEnvironmentVariable(named = "DB_ADDRESS", matches = ".+")
+class ExecutionFactPartitionTest {
+
+    private static final YearMonth EXPIRED_MONTH = YearMonth.of(1999, 5);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ExecutionFactService executionFactService;
+
+    @Autowired
+    ExecutionFactPartitionMaintainer partitionMaintainer;
+
+    @Autowired
+    ExecutionFactArchiver archiver;
+
+    @Autowired
+    ExecutionFactPartitionRepository partitionRepository;
+
+    @Autowired
+    ExecutionFactRepository executionFactRepository;
+
+    @Autowired
+    ArchivedExecutionFactRepository archivedFactRepository;
+
+    @Autowired
+    ParticipantRepository participantRepository;
+
+    @Autowired
+    DateTimeService dateTimeService;
+
+    Participant executor;
+
+    @BeforeEach
+    void initDb() {
+        clearDb();
+        executor = participantRepository.save(Participant.builder()
+                .withFullName("Test")
+                .withEmail("test@gmail.com")
+                .build());
+    }
+
+    @AfterEach
+    void clearDb() {
+        executionFactRepository.deleteAllInBatch();
+        archivedFactRepository.deleteAllInBatch();
+        participantRepository.deleteAllInBatch();
+        jdbcTemplate.queryForList(
+                        "select relname from pg_class where relkind = 'r' and relname like 'execution\\_facts\\_p1999\\_%'",
+                        String.class)
+                .forEach(partition -> jdbcTemplate.execute("drop table " + partition));
+        partitionMaintainer.createUpcomingPartitions();
+    }
+
+    @Test
+    void recordExecutionFact_shouldCreatePartitionOfFinishMonth_ifItHasNone() {
+        //given
+        LocalDateTime finishTime = EXPIRED_MONTH.atDay(10).atStartOfDay();
+        //when
+        UUID id = executionFactService.recordExecutionFact(fact(finishTime));
+        //then
+        assertTrue(partitionRepository.findMonthlyPartitions().contains(EXPIRED_MONTH));
+        assertEquals("execution_facts_p1999_05", partitionOf(id));
+    }
+
+    @Test
+    void updateExecutionFact_shouldMoveUnfinishedFactToPartitionOfFinishMonth() {
+        //given
+        UUID id = executionFactService.recordExecutionFact(fact(null));
+        assertEquals("execution_facts_unfinished", partitionOf(id));
+        LocalDateTime finishTime = EXPIRED_MONTH.atDay(10).atStartOfDay();
+        //when
+        executionFactService.updateExecutionFact(id, new UpdateExecutionFactDto(null, finishTime, null, null), null);
+        //then
+        assertEquals("execution_facts_p1999_05", partitionOf(id));
+    }
+
+    @Test
+    void createUpcomingPartitions_shouldCreatePartitionsOfCurrentAndUpcomingMonths() {
+        //given
+        YearMonth current = YearMonth.from(dateTimeService.utcNow());
+        //when
+        partitionMaintainer.createUpcomingPartitions();
+        //then
+        assertTrue(partitionRepository.findMonthlyPartitions().containsAll(
+                List.of(current, current.plusMonths(1), current.plusMonths(2), current.plusMonths(3))));
+    }
+
+    @Test
+    void archiveExpired_shouldDetachArchiveAndDropExpiredPartitions() {
+        //given
+        UUID expired = executionFactService.recordExecutionFact(fact(EXPIRED_MONTH.atDay(10).atStartOfDay()));
+        UUID unfinished = executionFactService.recordExecutionFact(fact(null));
+        //when
+        long archived = archiver.archiveExpired();
+        //then
+        assertEquals(1, archived);
+        assertFalse(partitionRepository.findMonthlyPartitions().contains(EXPIRED_MONTH));
+        assertFalse(partitionRepository.findDetachedMonthlyPartitions().contains(EXPIRED_MONTH));
+        assertTrue(archivedFactRepository.existsById(expired));
+        assertEquals(List.of(unfinished), executionFactRepository.findAll().stream().map(ExecutionFact::getId).toList());
+        UUID recordedAgain = executionFactService.recordExecutionFact(fact(EXPIRED_MONTH.atDay(11).atStartOfDay()));
+        assertEquals("execution_facts_p1999_05", partitionOf(recordedAgain), "archived partition must be created again");
+    }
+
+    @Test
+    void archiveExpired_shouldArchivePartitionLeftDetachedByInterruptedRun() {
+        //given
+        UUID expired = executionFactService.recordExecutionFact(fact(EXPIRED_MONTH.atDay(10).atStartOfDay()));
+        partitionRepository.detachMonthlyPartition(EXPIRED_MONTH);
+        //when
+        long archived = archiver.archiveExpired();
+        //then
+        assertEquals(1, archived);
+        assertFalse(partitionRepository.findDetachedMonthlyPartitions().contains(EXPIRED_MONTH));
+        assertTrue(archivedFactRepository.existsById(expired));
+    }
+
+    private RecordExecutionFactDto fact(LocalDateTime finishTime) {
+        return new RecordExecutionFactDto(executor.getId(), "description", EXPIRED_MONTH.atDay(1).atStartOfDay(), finishTime);
+    }
+
+    private String partitionOf(UUID id) {
+        return jdbcTemplate.queryForObject(
+                "select tableoid::regclass::text from execution_facts where id = ?", String.class, id);
+    }
+
+}